@@ -0,0 +1,86 @@
+package net.cosyfluf;
+
+import org.jbox2d.dynamics.contacts.Contact;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The per-tick game code around the physics step: {@link Car#update} cycling through throttle, nitro, reverse
+ * and idle, and {@link MyContactListener} called for every contact of a car resting on the terrain with
+ * sensor collectibles in the world.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CarBenchmark {
+
+    private static final int[] INPUTS = {
+            DriveInput.FORWARD, DriveInput.FORWARD | DriveInput.NITRO, DriveInput.REVERSE, DriveInput.NONE
+    };
+
+    private GameSession session;
+    private Car car;
+    private MyContactListener listener;
+    private Contact[] contacts;
+    private int call;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        session = new GameSession(LevelInfo.defaultLevels().get(0), PhysicsConstants.DEFAULT_PHYSICS_HZ,
+                GameSession.PickupMode.SENSOR);
+        for (int i = 0; i < 60; i++) {
+            session.tick(DriveInput.NONE);
+        }
+        car = session.getCar();
+        listener = new MyContactListener(session);
+
+        List<Contact> touching = new ArrayList<>();
+        for (Contact contact = session.getWorld().getContactList(); contact != null; contact = contact.getNext()) {
+            touching.add(contact);
+        }
+        if (touching.isEmpty()) {
+            throw new IllegalStateException("Car is not touching anything after settling");
+        }
+        contacts = touching.toArray(new Contact[0]);
+    }
+
+    @Benchmark
+    public Car carUpdate() {
+        int input = INPUTS[call++ & 3];
+        if ((call & 1023) == 0) {
+            car.currentNitroFuel = PhysicsConstants.NITRO_MAX_FUEL;
+            car.nitroCooldownTimer = 0.0f;
+        }
+        car.forward = DriveInput.isForward(input);
+        car.reverse = DriveInput.isReverse(input);
+        car.nitroInput = DriveInput.isNitro(input);
+        car.update(session.getTimeStep());
+        return car;
+    }
+
+    @Benchmark
+    public int contactListener() {
+        for (Contact contact : contacts) {
+            listener.beginContact(contact);
+            listener.preSolve(contact, contact.getManifold());
+            listener.endContact(contact);
+        }
+        return contacts.length;
+    }
+}
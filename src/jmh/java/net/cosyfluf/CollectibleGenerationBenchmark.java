@@ -0,0 +1,86 @@
+package net.cosyfluf;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collectible placement over a whole level: a fresh {@link CollectibleGenerator} discovering every slot, and
+ * re-spawning a window of {@link #WINDOW_CHUNKS} terrain chunks from a generator that already knows its slots.
+ * Heights come from a precomputed field so only the placement itself is measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollectibleGenerationBenchmark {
+
+    private static final int WINDOW_CHUNKS = 10;
+
+    @Param({"0", "3", "5"})
+    public int levelIndex;
+
+    @Param({"6000", "60000"})
+    public int length;
+
+    private LevelInfo level;
+    private float[] heights;
+    private float spacing;
+    private CollectibleGenerator warmGenerator;
+    private float windowFrom;
+    private float windowTo;
+    private int spawned;
+
+    private final CollectibleSource.SpawnConsumer counter = (slot, x, y) -> spawned++;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        LevelInfo base = LevelInfo.defaultLevels().get(levelIndex);
+        level = new LevelInfo(base.name, base.seed, base.terrainSmoothness, base.terrainAmplitude,
+                base.terrainNoiseFactor, base.initialCarXFactor, length);
+        TerrainGenerator terrain = new TerrainGenerator(level, StreamingTerrain.CHUNK_SAMPLES);
+        heights = new float[length];
+        terrain.fill(0, length, heights, 0);
+        spacing = terrain.getSpacingMeters();
+
+        warmGenerator = newGenerator();
+        warmGenerator.spawnInRange(Float.NEGATIVE_INFINITY, Float.POSITIVE_INFINITY, counter);
+        int firstChunk = Math.max(0, length / StreamingTerrain.CHUNK_SAMPLES / 2 - WINDOW_CHUNKS / 2);
+        windowFrom = firstChunk * StreamingTerrain.CHUNK_SAMPLES * spacing;
+        windowTo = windowFrom + WINDOW_CHUNKS * StreamingTerrain.CHUNK_SAMPLES * spacing;
+    }
+
+    private CollectibleGenerator newGenerator() {
+        return GameSession.createCollectibleGenerator(level, xMeters -> {
+            int sample = Math.max(0, Math.min(length - 1, (int) (xMeters / spacing)));
+            return heights[sample];
+        });
+    }
+
+    @Benchmark
+    public int wholeLevel() {
+        spawned = 0;
+        newGenerator().spawnInRange(Float.NEGATIVE_INFINITY, Float.POSITIVE_INFINITY, counter);
+        return spawned;
+    }
+
+    @Benchmark
+    public int chunkWindow() {
+        spawned = 0;
+        warmGenerator.spawnInRange(windowFrom, windowTo, counter);
+        return spawned;
+    }
+}
@@ -0,0 +1,48 @@
+package net.cosyfluf;
+
+import java.util.Random;
+
+/**
+ * The original whole-level terrain generation from GamePanel, kept verbatim as a benchmark baseline.
+ */
+final class LegacyTerrain {
+
+    private LegacyTerrain() {
+    }
+
+    static double[] generate(LevelInfo level, int length) {
+        double[] terrainPointsPixels = new double[length];
+        Random random = new Random(level.seed);
+
+        double currentY = TerrainGenerator.TERRAIN_OFFSET_Y;
+        double currentSlope = 0.0;
+        final double maxSlopeChange = 0.01;
+        final double maxSlope = 0.15;
+
+        for (int i = 0; i < terrainPointsPixels.length; i++) {
+            terrainPointsPixels[i] = currentY + Math.sin(i * level.terrainSmoothness) * level.terrainAmplitude * 0.8 +
+                    Math.cos(i * level.terrainSmoothness * 0.7) * level.terrainAmplitude * 0.5 +
+                    (random.nextDouble() - 0.5) * level.terrainNoiseFactor;
+
+            currentSlope += (random.nextDouble() - 0.5) * maxSlopeChange;
+            currentSlope = Math.max(-maxSlope, Math.min(maxSlope, currentSlope));
+            currentY += currentSlope * 15;
+
+            if (currentY > GameSession.LOGICAL_HEIGHT * 0.95) currentY = GameSession.LOGICAL_HEIGHT * 0.95;
+            if (currentY < GameSession.LOGICAL_HEIGHT * 0.4) currentY = GameSession.LOGICAL_HEIGHT * 0.4;
+        }
+
+        for (int iter = 0; iter < 4; iter++) {
+            double[] smoothed = new double[terrainPointsPixels.length];
+            for (int i = 0; i < terrainPointsPixels.length; i++) {
+                double sum = terrainPointsPixels[i];
+                int count = 1;
+                if (i > 0) { sum += terrainPointsPixels[i - 1]; count++; }
+                if (i < terrainPointsPixels.length - 1) { sum += terrainPointsPixels[i + 1]; count++; }
+                smoothed[i] = sum / count;
+            }
+            terrainPointsPixels = smoothed;
+        }
+        return terrainPointsPixels;
+    }
+}
@@ -0,0 +1,100 @@
+package net.cosyfluf;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One in-game frame painted into an offscreen image. With {@code ghosts > 0} that many recorded ghost cars race
+ * alongside, all of them on screen. That the paint code allocates nothing is checked by
+ * {@code PaintAllocationTest}; run with {@code -prof gc} for what the Java2D pipeline allocates on top.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class PaintFrameBenchmark {
+
+    private static final AffineTransform IDENTITY = new AffineTransform();
+
+    @Param({"0", "50"})
+    public int ghosts;
+
+    private GamePanel panel;
+    private BufferedImage image;
+    private Graphics2D g2d;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        if (ghosts > 0) {
+            recordGhosts();
+        }
+        panel = new GamePanel(null, LevelInfo.defaultLevels());
+        panel.setSize(GameSession.LOGICAL_WIDTH, GameSession.LOGICAL_HEIGHT);
+        panel.setActiveRendering(true);
+        panel.startGame(0);
+        panel.stopGameTimer();
+
+        // Drive a little with nitro so the flame, cooldown text and some collectibles are on screen.
+        GameSession session = panel.getSession();
+        for (int i = 0; i < 90; i++) {
+            session.tick(DriveInput.FORWARD | DriveInput.NITRO);
+        }
+        panel.refreshSnapshot();
+
+        image = new BufferedImage(GameSession.LOGICAL_WIDTH, GameSession.LOGICAL_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        g2d = image.createGraphics();
+    }
+
+    private void recordGhosts() throws IOException {
+        Path directory = Files.createTempDirectory("ghosts");
+        System.setProperty(GhostTrack.GHOST_DIR_PROPERTY, directory.toString());
+
+        // Staggered throttle so the ghosts spread out a little instead of stacking on one spot.
+        for (int i = 0; i < ghosts; i++) {
+            GameSession session = new GameSession(LevelInfo.defaultLevels().get(0));
+            GhostRecorder recorder = new GhostRecorder(session);
+            for (int tick = 0; tick < 600; tick++) {
+                session.tick(tick % (i % 5 + 2) == 0 ? DriveInput.NONE : DriveInput.FORWARD);
+                recorder.record();
+            }
+            recorder.write(directory.resolve(GhostTrack.fileName(session.getLevel(), "ghost" + i)), "ghost" + i, false);
+        }
+    }
+
+    private void paint(Graphics2D target) {
+        target.setTransform(IDENTITY);
+        panel.paintOffscreen(target, GameSession.LOGICAL_WIDTH, GameSession.LOGICAL_HEIGHT);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        g2d.dispose();
+    }
+
+    @Benchmark
+    public BufferedImage paintFrame() {
+        paint(g2d);
+        return image;
+    }
+}
@@ -0,0 +1,69 @@
+package net.cosyfluf;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * "Try Again" latency: {@link GameSession#reset()} against building a new session for the same level, each after
+ * {@code ticksBeforeRetry} ticks at full throttle with nitro. The short run ends near the start; the long one has
+ * picked up collectibles and streamed the terrain away from it. Run with {@code -prof gc} for the allocations.
+ * {@code RetryLatencyTest} holds the whole retry through the game panel, recorders included, to its budget.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RetryBenchmark {
+
+    @Param({"0", "3", "5"})
+    public int levelIndex;
+
+    @Param({"ANALYTIC", "SENSOR"})
+    public GameSession.PickupMode pickupMode;
+
+    @Param({"120", "1800"})
+    public int ticksBeforeRetry;
+
+    private LevelInfo level;
+    private GameSession session;
+
+    @Setup(Level.Trial)
+    public void setupLevel() {
+        level = LevelInfo.defaultLevels().get(levelIndex);
+        session = new GameSession(level, PhysicsConstants.DEFAULT_PHYSICS_HZ, pickupMode);
+        session.setVerbose(false);
+    }
+
+    @Setup(Level.Invocation)
+    public void drive() {
+        session.reset();
+        for (int i = 0; i < ticksBeforeRetry; i++) {
+            if (session.tick(DriveInput.FORWARD | DriveInput.NITRO) != GameSession.TickResult.RUNNING) break;
+        }
+    }
+
+    @Benchmark
+    public GameSession reset() {
+        session.reset();
+        return session;
+    }
+
+    @Benchmark
+    public GameSession newSession() {
+        return new GameSession(level, PhysicsConstants.DEFAULT_PHYSICS_HZ, pickupMode);
+    }
+}
@@ -0,0 +1,78 @@
+package net.cosyfluf;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Session tick cost with and without a {@link TelemetryRecorder} attached, over the first {@link #TICKS} ticks of
+ * a fresh session at full throttle. The recorded runs span several chunks, so the background writer's encoding
+ * and compression compete with the simulation as they would in the game.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TelemetryBenchmark {
+
+    private static final int TICKS = 3000;
+
+    @Param({"0", "3"})
+    public int levelIndex;
+
+    @Param({"false", "true"})
+    public boolean telemetry;
+
+    private LevelInfo level;
+    private Path directory;
+    private int run;
+    private GameSession session;
+    private TelemetryRecorder recorder;
+
+    @Setup(Level.Trial)
+    public void setupLevel() throws IOException {
+        level = LevelInfo.defaultLevels().get(levelIndex);
+        directory = Files.createTempDirectory("telemetry");
+    }
+
+    @Setup(Level.Invocation)
+    public void setupSession() {
+        session = new GameSession(level, PhysicsConstants.DEFAULT_PHYSICS_HZ);
+        recorder = telemetry ? new TelemetryRecorder(session, directory.resolve("run-" + run++ + Telemetry.FILE_SUFFIX))
+                : null;
+    }
+
+    @TearDown(Level.Invocation)
+    public void finishRun() {
+        if (recorder != null) recorder.finish();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TICKS)
+    public GameSession sessionTick() {
+        for (int i = 0; i < TICKS; i++) {
+            int input = i % 300 < 240 ? DriveInput.FORWARD : DriveInput.FORWARD | DriveInput.NITRO;
+            session.tick(input);
+            if (recorder != null) recorder.record(input);
+        }
+        return session;
+    }
+}
@@ -0,0 +1,73 @@
+package net.cosyfluf;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whole-level height field generation: the original allocate-per-pass loop against {@link TerrainGenerator}.
+ * Before measuring, setup checks that both agree within {@link TerrainGenerator#TOLERANCE_PIXELS}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TerrainGenerationBenchmark {
+
+    @Param({"0", "3", "5"})
+    public int levelIndex;
+
+    @Param({"6000", "60000"})
+    public int length;
+
+    private LevelInfo level;
+    private TerrainGenerator generator;
+    private double[] out;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        LevelInfo base = LevelInfo.defaultLevels().get(levelIndex);
+        level = new LevelInfo(base.name, base.seed, base.terrainSmoothness, base.terrainAmplitude,
+                base.terrainNoiseFactor, base.initialCarXFactor, length);
+        generator = new TerrainGenerator(level, StreamingTerrain.CHUNK_SAMPLES);
+        out = new double[length];
+
+        double[] expected = LegacyTerrain.generate(level, length);
+        generator.generatePixels(0, length, out, 0);
+        for (int i = 0; i < length; i++) {
+            if (Math.abs(out[i] - expected[i]) > TerrainGenerator.TOLERANCE_PIXELS) {
+                throw new IllegalStateException("Sample " + i + " differs: " + out[i] + " vs " + expected[i]);
+            }
+        }
+    }
+
+    @Benchmark
+    public double[] legacy() {
+        return LegacyTerrain.generate(level, length);
+    }
+
+    @Benchmark
+    public double[] generator() {
+        generator.generatePixels(0, length, out, 0);
+        return out;
+    }
+
+    @Benchmark
+    public double[] freshGenerator() {
+        new TerrainGenerator(level, StreamingTerrain.CHUNK_SAMPLES).generatePixels(0, length, out, 0);
+        return out;
+    }
+}
@@ -0,0 +1,82 @@
+package net.cosyfluf;
+
+import org.jbox2d.dynamics.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Physics cost per tick on each built-in level while the car drives at full throttle. Every invocation simulates
+ * the first {@link #TICKS} ticks of a fresh session, so the car is always on the same stretch of the run instead
+ * of lying on its roof after a crash. {@code worldStep} is the bare JBox2D step; {@code sessionTick} adds the car
+ * update, pickups, terrain streaming and the game rules, stepped either once per tick ({@code stepBudget} 0) or by
+ * an {@link AdaptiveStepper} with that budget.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorldStepBenchmark {
+
+    private static final int TICKS = 600;
+
+    @Param({"0", "1", "2", "3", "4", "5"})
+    public int levelIndex;
+
+    @Param({"ANALYTIC", "SENSOR"})
+    public GameSession.PickupMode pickupMode;
+
+    @Param({"0", "24"})
+    public int stepBudget;
+
+    private LevelInfo level;
+    private GameSession session;
+
+    @Setup(Level.Trial)
+    public void setupLevel() {
+        level = LevelInfo.defaultLevels().get(levelIndex);
+    }
+
+    @Setup(Level.Invocation)
+    public void setupSession() {
+        session = new GameSession(level, PhysicsConstants.DEFAULT_PHYSICS_HZ, pickupMode);
+        session.setStepper(stepBudget > 0 ? new AdaptiveStepper(stepBudget) : null);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TICKS)
+    public World worldStep() {
+        Car car = session.getCar();
+        car.forward = true;
+        car.update(session.getTimeStep());
+
+        World world = session.getWorld();
+        for (int i = 0; i < TICKS; i++) {
+            world.step(session.getTimeStep(), PhysicsConstants.VELOCITY_ITERATIONS, PhysicsConstants.POSITION_ITERATIONS);
+        }
+        return world;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TICKS)
+    public GameSession sessionTick() {
+        for (int i = 0; i < TICKS; i++) {
+            session.tick(DriveInput.FORWARD);
+        }
+        return session;
+    }
+}
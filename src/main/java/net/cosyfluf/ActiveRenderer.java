@@ -0,0 +1,166 @@
+package net.cosyfluf;
+
+import javax.swing.SwingUtilities;
+import java.awt.AWTException;
+import java.awt.BufferCapabilities;
+import java.awt.DisplayMode;
+import java.awt.Frame;
+import java.awt.Graphics2D;
+import java.awt.ImageCapabilities;
+import java.awt.Point;
+import java.awt.Toolkit;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.event.ComponentListener;
+import java.awt.event.HierarchyBoundsAdapter;
+import java.awt.event.HierarchyBoundsListener;
+import java.awt.event.HierarchyEvent;
+import java.awt.image.BufferStrategy;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Draws the game panel from a dedicated thread into the frame's {@link BufferStrategy} instead of waiting for
+ * Swing to schedule {@code paintComponent}. Uses page flipping in exclusive fullscreen and blitting otherwise.
+ */
+public class ActiveRenderer implements Runnable {
+
+    private final Frame frame;
+    private final GamePanel gamePanel;
+    private final BufferStrategy strategy;
+    private final boolean pageFlipping;
+    private final long frameIntervalNanos;
+
+    private volatile boolean running = false;
+    private Thread renderThread;
+
+    // Panel origin inside the frame, recomputed on the EDT only when the panel or one of its ancestors moves.
+    private volatile Point origin;
+    private final ComponentListener panelListener = new ComponentAdapter() {
+        @Override
+        public void componentMoved(ComponentEvent e) {
+            updateOrigin();
+        }
+
+        @Override
+        public void componentResized(ComponentEvent e) {
+            updateOrigin();
+        }
+    };
+    private final HierarchyBoundsListener ancestorListener = new HierarchyBoundsAdapter() {
+        @Override
+        public void ancestorMoved(HierarchyEvent e) {
+            updateOrigin();
+        }
+
+        @Override
+        public void ancestorResized(HierarchyEvent e) {
+            updateOrigin();
+        }
+    };
+
+    public ActiveRenderer(Frame frame, GamePanel gamePanel, int numBuffers, boolean exclusiveFullscreen) {
+        this.frame = frame;
+        this.gamePanel = gamePanel;
+
+        boolean flipping = false;
+        if (exclusiveFullscreen) {
+            BufferCapabilities flipCapabilities = new BufferCapabilities(
+                    new ImageCapabilities(true), new ImageCapabilities(true), BufferCapabilities.FlipContents.UNDEFINED);
+            try {
+                frame.createBufferStrategy(numBuffers, flipCapabilities);
+                flipping = true;
+            } catch (AWTException e) {
+                System.out.println("Page-Flipping nicht verfügbar, verwende Blitting: " + e.getMessage());
+            }
+        }
+        if (!flipping) {
+            frame.createBufferStrategy(numBuffers);
+        }
+        this.strategy = frame.getBufferStrategy();
+        this.pageFlipping = strategy.getCapabilities().isPageFlipping();
+
+        int refreshRate = frame.getGraphicsConfiguration().getDevice().getDisplayMode().getRefreshRate();
+        if (refreshRate == DisplayMode.REFRESH_RATE_UNKNOWN || refreshRate <= 0) {
+            refreshRate = PhysicsConstants.DEFAULT_PHYSICS_HZ;
+        }
+        this.frameIntervalNanos = 1_000_000_000L / refreshRate;
+
+        updateOrigin();
+        gamePanel.addComponentListener(panelListener);
+        gamePanel.addHierarchyBoundsListener(ancestorListener);
+    }
+
+    private void updateOrigin() {
+        origin = SwingUtilities.convertPoint(gamePanel, 0, 0, frame);
+    }
+
+    public boolean isPageFlipping() {
+        return pageFlipping;
+    }
+
+    public void start() {
+        if (running) return;
+        running = true;
+        renderThread = new Thread(this, "active-renderer");
+        renderThread.setDaemon(true);
+        renderThread.setPriority(Thread.MAX_PRIORITY);
+        renderThread.start();
+    }
+
+    public void stop() {
+        running = false;
+        if (renderThread != null) {
+            try {
+                renderThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            renderThread = null;
+        }
+        gamePanel.removeComponentListener(panelListener);
+        gamePanel.removeHierarchyBoundsListener(ancestorListener);
+        strategy.dispose();
+    }
+
+    @Override
+    public void run() {
+        long nextFrameNanos = System.nanoTime();
+        try {
+            while (running) {
+                renderOnce();
+
+                // A flip waits for the vertical retrace by itself; a blit has to be paced by hand.
+                if (!pageFlipping) {
+                    nextFrameNanos += frameIntervalNanos;
+                    long sleepNanos = nextFrameNanos - System.nanoTime();
+                    if (sleepNanos > 0) {
+                        LockSupport.parkNanos(sleepNanos);
+                    } else {
+                        nextFrameNanos = System.nanoTime();
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void renderOnce() throws InterruptedException {
+        Point origin = this.origin;
+        do {
+            do {
+                Graphics2D g2d = (Graphics2D) strategy.getDrawGraphics();
+                try {
+                    g2d.translate(origin.x, origin.y);
+                    if (!gamePanel.renderActiveFrame(g2d, frameIntervalNanos)) {
+                        return;
+                    }
+                } finally {
+                    g2d.dispose();
+                }
+            } while (strategy.contentsRestored());
+            strategy.show();
+        } while (strategy.contentsLost());
+        Toolkit.getDefaultToolkit().sync();
+    }
+}
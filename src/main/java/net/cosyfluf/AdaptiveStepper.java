@@ -0,0 +1,150 @@
+package net.cosyfluf;
+
+import org.jbox2d.dynamics.Body;
+import org.jbox2d.dynamics.contacts.ContactEdge;
+
+import static net.cosyfluf.PhysicsConstants.WHEEL_RADIUS;
+
+/**
+ * Picks the physics sub-steps, solver iterations and bullet wheels for each tick from the car's state: fast cars
+ * are split into sub-steps short enough that a wheel cannot skip past the terrain chain, and a car pushing into
+ * the ground at speed gets more iterations. Everything else steps like fixed stepping, with the default iterations
+ * and JBox2D's time-of-impact pass on for the whole world. The wheels are only made bullets when a sub-step is
+ * still too long, i.e. when the budget did not allow enough of them.
+ * <p>
+ * The budget is counted in solver iteration units per tick ({@code subSteps * (velocity + position iterations)},
+ * plus {@link #CONTINUOUS_COST} for bullet wheels) rather than in wall-clock time, so the schedule depends on
+ * nothing but the simulation and replays, ghosts and training runs stay deterministic. Iterations only go below
+ * the defaults when even one sub-step does not fit. Ticks that had to drop below the wanted quality are counted
+ * in {@link #getDegradedTicks()}.
+ */
+public class AdaptiveStepper {
+
+    public static final String BUDGET_PROPERTY = "hillclimb.stepBudget";
+    public static final int DEFAULT_BUDGET = 24;
+    public static final int MAX_SUB_STEPS = 4;
+    public static final int CONTINUOUS_COST = 8;
+
+    // A wheel moving less than half its radius per sub-step cannot pass through the zero-thickness terrain.
+    private static final float MAX_TRAVEL_PER_SUB_STEP = 0.5f * WHEEL_RADIUS;
+    private static final float FAST_SPEED = 8.0f;
+
+    private final int budget;
+
+    private int subSteps = 1;
+    private int velocityIterations = PhysicsConstants.VELOCITY_ITERATIONS;
+    private int positionIterations = PhysicsConstants.POSITION_ITERATIONS;
+    private boolean continuous;
+
+    private long ticks;
+    private long degradedTicks;
+    private long continuousTicks;
+    private final long[] subStepTicks = new long[MAX_SUB_STEPS + 1];
+
+    public AdaptiveStepper(int budget) {
+        if (budget <= 0) {
+            throw new IllegalArgumentException("budget must be positive: " + budget);
+        }
+        this.budget = budget;
+    }
+
+    /**
+     * The stepper configured by {@value #BUDGET_PROPERTY}; a budget of 0 means one fixed step per tick and
+     * returns {@code null}.
+     */
+    public static AdaptiveStepper fromSystemProperty() {
+        int budget = Integer.getInteger(BUDGET_PROPERTY, DEFAULT_BUDGET);
+        return budget > 0 ? new AdaptiveStepper(budget) : null;
+    }
+
+    public void plan(Car car, float timeStep) {
+        float speed = Math.max(speed(car.chassisBody), Math.max(speed(car.frontWheelBody), speed(car.rearWheelBody)));
+        boolean grounded = isTouching(car.frontWheelBody) || isTouching(car.rearWheelBody);
+
+        float travel = speed * timeStep;
+        int wantedSubSteps = Math.min(MAX_SUB_STEPS, Math.max(1, (int) Math.ceil(travel / MAX_TRAVEL_PER_SUB_STEP)));
+        int wantedVelocity = PhysicsConstants.VELOCITY_ITERATIONS;
+        int wantedPosition = PhysicsConstants.POSITION_ITERATIONS;
+        if (grounded && (speed > FAST_SPEED || car.isNitroActive)) {
+            wantedVelocity = 8;
+            wantedPosition = 3;
+        }
+
+        subSteps = wantedSubSteps;
+        velocityIterations = wantedVelocity;
+        positionIterations = wantedPosition;
+        continuous = travel / subSteps > MAX_TRAVEL_PER_SUB_STEP;
+
+        // Over budget: first fall back to the default iterations, then give up sub-steps for bullet wheels.
+        if (cost() > budget) {
+            velocityIterations = Math.min(velocityIterations, PhysicsConstants.VELOCITY_ITERATIONS);
+            positionIterations = Math.min(positionIterations, PhysicsConstants.POSITION_ITERATIONS);
+        }
+        while (cost() > budget && subSteps > 1) {
+            subSteps--;
+            continuous = travel / subSteps > MAX_TRAVEL_PER_SUB_STEP;
+        }
+        while (cost() > budget && velocityIterations > 1) {
+            velocityIterations--;
+        }
+
+        ticks++;
+        subStepTicks[subSteps]++;
+        if (continuous) continuousTicks++;
+        if (subSteps < wantedSubSteps || velocityIterations < wantedVelocity || positionIterations < wantedPosition) {
+            degradedTicks++;
+        }
+    }
+
+    private int cost() {
+        return subSteps * (velocityIterations + positionIterations) + (continuous ? CONTINUOUS_COST : 0);
+    }
+
+    private static float speed(Body body) {
+        return body.getLinearVelocity().length();
+    }
+
+    private static boolean isTouching(Body body) {
+        for (ContactEdge edge = body.getContactList(); edge != null; edge = edge.next) {
+            if (edge.contact.isTouching()) return true;
+        }
+        return false;
+    }
+
+    public int getBudget() {
+        return budget;
+    }
+
+    public int getSubSteps() {
+        return subSteps;
+    }
+
+    public int getVelocityIterations() {
+        return velocityIterations;
+    }
+
+    public int getPositionIterations() {
+        return positionIterations;
+    }
+
+    /** Whether the wheels should be bullets this tick. */
+    public boolean isContinuous() {
+        return continuous;
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+
+    public long getDegradedTicks() {
+        return degradedTicks;
+    }
+
+    public long getContinuousTicks() {
+        return continuousTicks;
+    }
+
+    public long getSubStepTicks(int subSteps) {
+        return subStepTicks[subSteps];
+    }
+}
@@ -11,15 +11,6 @@ import org.jbox2d.dynamics.World;
 import org.jbox2d.dynamics.joints.WheelJoint;
 import org.jbox2d.dynamics.joints.WheelJointDef;
 
-import java.awt.Color;
-import java.awt.Graphics2D;
-import java.awt.Polygon;
-import java.awt.geom.AffineTransform;
-import java.awt.geom.Ellipse2D;
-import java.awt.geom.Rectangle2D;
-
-import static net.cosyfluf.PhysicsConstants.PIXELS_PER_METER;
-import static net.cosyfluf.PhysicsConstants.TIME_STEP;
 import static net.cosyfluf.PhysicsConstants.WHEEL_RADIUS;
 
 public class Car {
@@ -55,6 +46,10 @@ public class Car {
     public boolean isNitroActive = false;
     public float nitroCooldownTimer = 0.0f;
 
+    // What the last update() asked of the wheel motors, for telemetry.
+    public float appliedMotorSpeed;
+    public float appliedMotorTorque;
+
     public Car(World world, float initialX, float initialY) {
 
         BodyDef bd = new BodyDef();
@@ -70,6 +65,8 @@ public class Car {
         fd.density = chassisDensity;
         fd.friction = 0.6f;
         fd.restitution = 0.1f;
+        fd.filter.categoryBits = PhysicsConstants.CATEGORY_CHASSIS;
+        fd.filter.maskBits = PhysicsConstants.MASK_CHASSIS;
 
         chassisBody = world.createBody(bd);
         chassisBody.createFixture(fd).setUserData(this);
@@ -82,6 +79,8 @@ public class Car {
         wheelFd.density = wheelDensity;
         wheelFd.friction = 2.5f;
         wheelFd.restitution = 0.2f;
+        wheelFd.filter.categoryBits = PhysicsConstants.CATEGORY_WHEEL;
+        wheelFd.filter.maskBits = PhysicsConstants.MASK_WHEEL;
 
         BodyDef wheelBdFront = new BodyDef();
         wheelBdFront.type = BodyType.DYNAMIC;
@@ -113,7 +112,16 @@ public class Car {
         rearWheelJoint = (WheelJoint) world.createJoint(wjd);
     }
 
-    public void update() {
+    /**
+     * Removes the car's bodies from {@code world}; the wheel joints go with them.
+     */
+    public void destroy(World world) {
+        world.destroyBody(chassisBody);
+        world.destroyBody(frontWheelBody);
+        world.destroyBody(rearWheelBody);
+    }
+
+    public void update(float timeStep) {
         float currentMotorSpeed = 0.0f;
         float currentMotorTorque = idleTorque;
 
@@ -129,7 +137,7 @@ public class Car {
         }
 
         if (nitroCooldownTimer > 0) {
-            nitroCooldownTimer -= TIME_STEP;
+            nitroCooldownTimer -= timeStep;
             if (nitroCooldownTimer < 0) nitroCooldownTimer = 0;
             isNitroActive = false;
         }
@@ -142,7 +150,7 @@ public class Car {
 
         if (isNitroActive && currentNitroFuel > 0) {
             currentMotorTorque *= PhysicsConstants.NITRO_FORCE_MULTIPLIER;
-            currentNitroFuel -= PhysicsConstants.NITRO_CONSUMPTION_RATE * TIME_STEP;
+            currentNitroFuel -= PhysicsConstants.NITRO_CONSUMPTION_RATE * timeStep;
             if (currentNitroFuel < 0) {
                 currentNitroFuel = 0;
                 isNitroActive = false;
@@ -153,6 +161,8 @@ public class Car {
             nitroCooldownTimer = PhysicsConstants.NITRO_COOLDOWN_TIME;
         }
 
+        appliedMotorSpeed = currentMotorSpeed;
+        appliedMotorTorque = currentMotorTorque;
         frontWheelJoint.setMotorSpeed(currentMotorSpeed);
         frontWheelJoint.setMaxMotorTorque(currentMotorTorque);
         rearWheelJoint.setMotorSpeed(currentMotorSpeed);
@@ -172,82 +182,7 @@ public class Car {
         return Math.abs(angle) > Math.PI * 0.75f;
     }
 
-    private float toSwingY(float jbox2dY, int screenHeight) {
-        return screenHeight - (jbox2dY * PIXELS_PER_METER);
-    }
-
     public float getX() { return chassisBody.getPosition().x; }
     public float getY() { return chassisBody.getPosition().y; }
     public float getAngle() { return chassisBody.getAngle(); }
-
-    public void draw(Graphics2D g2d, int screenHeight) {
-        g2d.setColor(new Color(178, 34, 34));
-
-        Vec2 chassisPos = chassisBody.getPosition();
-        float chassisAngle = chassisBody.getAngle();
-
-        AffineTransform oldTransform = g2d.getTransform();
-        g2d.translate(chassisPos.x * PIXELS_PER_METER, toSwingY(chassisPos.y, screenHeight));
-        g2d.rotate(-chassisAngle);
-
-        g2d.fill(new Rectangle2D.Double(-CHASSIS_WIDTH / 2 * PIXELS_PER_METER, -CHASSIS_HEIGHT / 2 * PIXELS_PER_METER,
-                CHASSIS_WIDTH * PIXELS_PER_METER, CHASSIS_HEIGHT * PIXELS_PER_METER));
-
-        g2d.setColor(new Color(205, 92, 92));
-        double cabinWidth = CHASSIS_WIDTH / 2 * PIXELS_PER_METER;
-        double cabinHeight = CHASSIS_HEIGHT / 2 * PIXELS_PER_METER;
-        g2d.fill(new Rectangle2D.Double(-cabinWidth / 2, -CHASSIS_HEIGHT / 2 * PIXELS_PER_METER - cabinHeight, cabinWidth, cabinHeight));
-
-        g2d.setColor(new Color(173, 216, 230, 180));
-        Polygon windshield = new Polygon();
-        windshield.addPoint((int) (cabinWidth / 4), (int) (-CHASSIS_HEIGHT / 2 * PIXELS_PER_METER - cabinHeight + 2));
-        windshield.addPoint((int) (cabinWidth / 2 - 2), (int) (-CHASSIS_HEIGHT / 2 * PIXELS_PER_METER - cabinHeight + 2));
-        windshield.addPoint((int) (cabinWidth / 2 - 5), (int) (-CHASSIS_HEIGHT / 2 * PIXELS_PER_METER - cabinHeight / 2));
-        windshield.addPoint((int) (cabinWidth / 4 + 5), (int) (-CHASSIS_HEIGHT / 2 * PIXELS_PER_METER - cabinHeight / 2));
-        g2d.fill(windshield);
-
-        g2d.setColor(new Color(255, 255, 0));
-        g2d.fill(new Ellipse2D.Double(CHASSIS_WIDTH / 2 * PIXELS_PER_METER - 5, -CHASSIS_HEIGHT / 4 * PIXELS_PER_METER, 8, 8));
-        g2d.fill(new Ellipse2D.Double(CHASSIS_WIDTH / 2 * PIXELS_PER_METER - 5, CHASSIS_HEIGHT / 4 * PIXELS_PER_METER - 8, 8, 8));
-
-        g2d.setTransform(oldTransform);
-
-        g2d.setColor(Color.BLACK);
-        drawWheel(g2d, frontWheelBody, screenHeight);
-        drawWheel(g2d, rearWheelBody, screenHeight);
-
-        if (isNitroActive && currentNitroFuel > 0) {
-            g2d.setColor(Color.ORANGE);
-            float flameSize = (float) (Math.random() * 10 + 10);
-            Vec2 chassisBackLocalPoint = new Vec2(-CHASSIS_WIDTH / 2 + 0.1f, 0.0f);
-            Vec2 chassisBackWorldPoint = chassisBody.getWorldPoint(chassisBackLocalPoint);
-
-            float drawX = chassisBackWorldPoint.x * PIXELS_PER_METER - (flameSize / 2);
-            float drawY = toSwingY(chassisBackWorldPoint.y, screenHeight);
-
-            g2d.fillOval((int)drawX, (int)(drawY - flameSize / 2), (int)flameSize, (int)flameSize);
-            g2d.setColor(Color.RED);
-            flameSize *= 0.7;
-            g2d.fillOval((int)drawX, (int)(drawY - flameSize / 2), (int)flameSize, (int)flameSize);
-        }
-    }
-
-    private void drawWheel(Graphics2D g2d, Body wheel, int screenHeight) {
-        Vec2 wheelPos = wheel.getPosition();
-        float wheelAngle = wheel.getAngle();
-
-        AffineTransform oldTransform = g2d.getTransform();
-        g2d.translate(wheelPos.x * PIXELS_PER_METER, toSwingY(wheelPos.y, screenHeight));
-        g2d.rotate(-wheelAngle);
-
-        g2d.fill(new Ellipse2D.Double(-WHEEL_RADIUS * PIXELS_PER_METER, -WHEEL_RADIUS * PIXELS_PER_METER,
-                WHEEL_RADIUS * 2 * PIXELS_PER_METER, WHEEL_RADIUS * 2 * PIXELS_PER_METER));
-
-        g2d.setColor(Color.GRAY);
-        float hubRadius = WHEEL_RADIUS * 0.4f;
-        g2d.fill(new Ellipse2D.Double(-hubRadius * PIXELS_PER_METER, -hubRadius * PIXELS_PER_METER,
-                hubRadius * 2 * PIXELS_PER_METER, hubRadius * 2 * PIXELS_PER_METER));
-
-        g2d.setTransform(oldTransform);
-    }
 }
\ No newline at end of file
@@ -0,0 +1,64 @@
+package net.cosyfluf;
+
+import org.jbox2d.common.Vec2;
+import org.jbox2d.dynamics.Body;
+
+public class CarPose {
+    public float chassisX;
+    public float chassisY;
+    public float chassisAngle;
+
+    public float frontWheelX;
+    public float frontWheelY;
+    public float frontWheelAngle;
+
+    public float rearWheelX;
+    public float rearWheelY;
+    public float rearWheelAngle;
+
+    public void capture(Car car) {
+        Body chassis = car.chassisBody;
+        Vec2 pos = chassis.getPosition();
+        chassisX = pos.x;
+        chassisY = pos.y;
+        chassisAngle = chassis.getAngle();
+
+        pos = car.frontWheelBody.getPosition();
+        frontWheelX = pos.x;
+        frontWheelY = pos.y;
+        frontWheelAngle = car.frontWheelBody.getAngle();
+
+        pos = car.rearWheelBody.getPosition();
+        rearWheelX = pos.x;
+        rearWheelY = pos.y;
+        rearWheelAngle = car.rearWheelBody.getAngle();
+    }
+
+    public void set(CarPose other) {
+        chassisX = other.chassisX;
+        chassisY = other.chassisY;
+        chassisAngle = other.chassisAngle;
+        frontWheelX = other.frontWheelX;
+        frontWheelY = other.frontWheelY;
+        frontWheelAngle = other.frontWheelAngle;
+        rearWheelX = other.rearWheelX;
+        rearWheelY = other.rearWheelY;
+        rearWheelAngle = other.rearWheelAngle;
+    }
+
+    public void interpolate(CarPose previous, CarPose current, float alpha) {
+        chassisX = lerp(previous.chassisX, current.chassisX, alpha);
+        chassisY = lerp(previous.chassisY, current.chassisY, alpha);
+        chassisAngle = lerp(previous.chassisAngle, current.chassisAngle, alpha);
+        frontWheelX = lerp(previous.frontWheelX, current.frontWheelX, alpha);
+        frontWheelY = lerp(previous.frontWheelY, current.frontWheelY, alpha);
+        frontWheelAngle = lerp(previous.frontWheelAngle, current.frontWheelAngle, alpha);
+        rearWheelX = lerp(previous.rearWheelX, current.rearWheelX, alpha);
+        rearWheelY = lerp(previous.rearWheelY, current.rearWheelY, alpha);
+        rearWheelAngle = lerp(previous.rearWheelAngle, current.rearWheelAngle, alpha);
+    }
+
+    private static float lerp(float from, float to, float alpha) {
+        return from + (to - from) * alpha;
+    }
+}
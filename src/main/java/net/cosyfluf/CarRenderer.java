@@ -0,0 +1,149 @@
+package net.cosyfluf;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Polygon;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Rectangle2D;
+
+import static net.cosyfluf.Car.CHASSIS_HEIGHT;
+import static net.cosyfluf.Car.CHASSIS_WIDTH;
+import static net.cosyfluf.PhysicsConstants.PIXELS_PER_METER;
+import static net.cosyfluf.PhysicsConstants.WHEEL_RADIUS;
+
+public class CarRenderer {
+
+    private static final Color CHASSIS_COLOR = new Color(178, 34, 34);
+    private static final Color CABIN_COLOR = new Color(205, 92, 92);
+    private static final Color WINDSHIELD_COLOR = new Color(173, 216, 230, 180);
+    private static final Color HEADLIGHT_COLOR = new Color(255, 255, 0);
+
+    private static final double CABIN_WIDTH = CHASSIS_WIDTH / 2 * PIXELS_PER_METER;
+    private static final double CABIN_HEIGHT = CHASSIS_HEIGHT / 2 * PIXELS_PER_METER;
+    private static final double CABIN_TOP = -CHASSIS_HEIGHT / 2 * PIXELS_PER_METER - CABIN_HEIGHT;
+
+    private static final Rectangle2D CHASSIS = new Rectangle2D.Double(
+            -CHASSIS_WIDTH / 2 * PIXELS_PER_METER, -CHASSIS_HEIGHT / 2 * PIXELS_PER_METER,
+            CHASSIS_WIDTH * PIXELS_PER_METER, CHASSIS_HEIGHT * PIXELS_PER_METER);
+    private static final Rectangle2D CABIN = new Rectangle2D.Double(-CABIN_WIDTH / 2, CABIN_TOP, CABIN_WIDTH, CABIN_HEIGHT);
+    private static final Polygon WINDSHIELD = new Polygon(
+            new int[] {(int) (CABIN_WIDTH / 4), (int) (CABIN_WIDTH / 2 - 2), (int) (CABIN_WIDTH / 2 - 5), (int) (CABIN_WIDTH / 4 + 5)},
+            new int[] {(int) (CABIN_TOP + 2), (int) (CABIN_TOP + 2), (int) (-CHASSIS_HEIGHT / 2 * PIXELS_PER_METER - CABIN_HEIGHT / 2),
+                    (int) (-CHASSIS_HEIGHT / 2 * PIXELS_PER_METER - CABIN_HEIGHT / 2)},
+            4);
+    private static final Ellipse2D UPPER_HEADLIGHT = new Ellipse2D.Double(
+            CHASSIS_WIDTH / 2 * PIXELS_PER_METER - 5, -CHASSIS_HEIGHT / 4 * PIXELS_PER_METER, 8, 8);
+    private static final Ellipse2D LOWER_HEADLIGHT = new Ellipse2D.Double(
+            CHASSIS_WIDTH / 2 * PIXELS_PER_METER - 5, CHASSIS_HEIGHT / 4 * PIXELS_PER_METER - 8, 8, 8);
+
+    private static final float HUB_RADIUS = WHEEL_RADIUS * 0.4f;
+    private static final Ellipse2D TIRE = new Ellipse2D.Double(-WHEEL_RADIUS * PIXELS_PER_METER, -WHEEL_RADIUS * PIXELS_PER_METER,
+            WHEEL_RADIUS * 2 * PIXELS_PER_METER, WHEEL_RADIUS * 2 * PIXELS_PER_METER);
+    private static final Ellipse2D HUB = new Ellipse2D.Double(-HUB_RADIUS * PIXELS_PER_METER, -HUB_RADIUS * PIXELS_PER_METER,
+            HUB_RADIUS * 2 * PIXELS_PER_METER, HUB_RADIUS * 2 * PIXELS_PER_METER);
+
+    /** Longest distance from the chassis centre to any body pixel, in logical pixels. */
+    static final double BODY_EXTENT = Math.ceil(Math.hypot(CHASSIS_WIDTH / 2 * PIXELS_PER_METER + 3, -CABIN_TOP)) + 1;
+    static final double WHEEL_EXTENT = Math.ceil(WHEEL_RADIUS * PIXELS_PER_METER) + 1;
+
+    private final CarSpriteCache sprites;
+
+    public CarRenderer() {
+        this(Boolean.parseBoolean(System.getProperty("hillclimb.carSprites", "true"))
+                ? new CarSpriteCache(Integer.getInteger("hillclimb.carSpriteAngles", CarSpriteCache.AUTO_ANGLE_BUCKETS)) : null);
+    }
+
+    /**
+     * @param sprites pre-rendered car images, or {@code null} to draw the vector shapes every frame
+     */
+    public CarRenderer(CarSpriteCache sprites) {
+        this.sprites = sprites;
+    }
+
+    private float toSwingY(float jbox2dY, int screenHeight) {
+        return screenHeight - (jbox2dY * PIXELS_PER_METER);
+    }
+
+    /**
+     * Vector car body around the chassis centre, unrotated.
+     */
+    static void paintBody(Graphics2D g2d) {
+        g2d.setColor(CHASSIS_COLOR);
+        g2d.fill(CHASSIS);
+        g2d.setColor(CABIN_COLOR);
+        g2d.fill(CABIN);
+        g2d.setColor(WINDSHIELD_COLOR);
+        g2d.fill(WINDSHIELD);
+        g2d.setColor(HEADLIGHT_COLOR);
+        g2d.fill(UPPER_HEADLIGHT);
+        g2d.fill(LOWER_HEADLIGHT);
+    }
+
+    /**
+     * Vector wheel around its centre. Tire and hub are concentric, so the wheel looks the same at every angle.
+     */
+    static void paintWheel(Graphics2D g2d) {
+        g2d.setColor(Color.BLACK);
+        g2d.fill(TIRE);
+        g2d.setColor(Color.GRAY);
+        g2d.fill(HUB);
+    }
+
+    public void draw(Graphics2D g2d, CarPose pose, boolean nitroActive, int screenHeight) {
+        draw(g2d, pose, nitroActive, screenHeight, 1.0, 1.0);
+    }
+
+    /**
+     * Draws the car. {@code (scaleX, scaleY)} is the logical-to-device scale already on {@code g2d}; sprites are
+     * rendered at that resolution.
+     */
+    public void draw(Graphics2D g2d, CarPose pose, boolean nitroActive, int screenHeight, double scaleX, double scaleY) {
+        float chassisAngle = pose.chassisAngle;
+        double chassisX = pose.chassisX * PIXELS_PER_METER;
+        double chassisY = toSwingY(pose.chassisY, screenHeight);
+
+        if (sprites != null) {
+            sprites.drawBody(g2d, chassisX, chassisY, chassisAngle, scaleX, scaleY);
+            sprites.drawWheel(g2d, pose.frontWheelX * PIXELS_PER_METER, toSwingY(pose.frontWheelY, screenHeight), scaleX, scaleY);
+            sprites.drawWheel(g2d, pose.rearWheelX * PIXELS_PER_METER, toSwingY(pose.rearWheelY, screenHeight), scaleX, scaleY);
+        } else {
+            // Undo the local transform by hand instead of saving it; getTransform() copies on every call.
+            g2d.translate(chassisX, chassisY);
+            g2d.rotate(-chassisAngle);
+            paintBody(g2d);
+            g2d.rotate(chassisAngle);
+            g2d.translate(-chassisX, -chassisY);
+
+            drawWheel(g2d, pose.frontWheelX, pose.frontWheelY, pose.frontWheelAngle, screenHeight);
+            drawWheel(g2d, pose.rearWheelX, pose.rearWheelY, pose.rearWheelAngle, screenHeight);
+        }
+
+        if (nitroActive) {
+            g2d.setColor(Color.ORANGE);
+            float flameSize = (float) (Math.random() * 10 + 10);
+            float chassisBackLocalX = -CHASSIS_WIDTH / 2 + 0.1f;
+            float chassisBackWorldX = pose.chassisX + chassisBackLocalX * (float) Math.cos(chassisAngle);
+            float chassisBackWorldY = pose.chassisY + chassisBackLocalX * (float) Math.sin(chassisAngle);
+
+            float drawX = chassisBackWorldX * PIXELS_PER_METER - (flameSize / 2);
+            float drawY = toSwingY(chassisBackWorldY, screenHeight);
+
+            g2d.fillOval((int)drawX, (int)(drawY - flameSize / 2), (int)flameSize, (int)flameSize);
+            g2d.setColor(Color.RED);
+            flameSize *= 0.7;
+            g2d.fillOval((int)drawX, (int)(drawY - flameSize / 2), (int)flameSize, (int)flameSize);
+        }
+    }
+
+    private void drawWheel(Graphics2D g2d, float wheelX, float wheelY, float wheelAngle, int screenHeight) {
+        double x = wheelX * PIXELS_PER_METER;
+        double y = toSwingY(wheelY, screenHeight);
+        g2d.translate(x, y);
+        g2d.rotate(-wheelAngle);
+
+        paintWheel(g2d);
+
+        g2d.rotate(wheelAngle);
+        g2d.translate(-x, -y);
+    }
+}
@@ -0,0 +1,202 @@
+package net.cosyfluf;
+
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * Car body and wheel pre-rendered once into compatible images at the current device scale, so each car costs one
+ * {@code drawImage} per part instead of a handful of anti-aliased vector fills. On accelerated pipelines one body
+ * sprite is drawn under the chassis rotation. The software pipeline pays several times a vector fill for a rotated
+ * blit, so there the body is pre-rotated lazily into angle buckets and blitted without a rotation. One cache can
+ * serve any number of cars.
+ * <p>
+ * The buckets of one scale stay within {@link #MAX_ANGLE_BUCKETS} and {@link #MAX_SPRITE_BYTES}. Where that is
+ * fewer than sub-pixel steps need, the nearest bucket is turned by the rest of the angle. Sprites are kept for the
+ * {@value #CACHED_SCALES} most recently drawn scales, so the render scaler stepping back and forth between two
+ * resolutions does not render them again.
+ */
+public class CarSpriteCache {
+
+    /**
+     * As many buckets as the body's outermost device pixel needs to move less than a pixel per step, up to the
+     * limits; each bucket image is rendered on first use.
+     */
+    public static final int AUTO_ANGLE_BUCKETS = -1;
+    public static final int MAX_ANGLE_BUCKETS = 128;
+    /** Upper bound for the pre-rotated body images of one scale. */
+    public static final long MAX_SPRITE_BYTES = 16L << 20;
+
+    // Below this many buckets the residual turn is most of the rotation, so the single sprite is rotated instead.
+    private static final int MIN_ANGLE_BUCKETS = 16;
+    private static final int CACHED_SCALES = 2;
+
+    private final int angleBuckets;
+    // Most recently drawn first.
+    private final Sprites[] cached = new Sprites[CACHED_SCALES];
+
+    /** The images for one device configuration and scale. */
+    private static class Sprites {
+        GraphicsConfiguration config;
+        double scaleX;
+        double scaleY;
+
+        // Buckets in use; 0 rotates the single sprite.
+        int buckets;
+        BufferedImage body;
+        BufferedImage[] rotatedBodies;
+        BufferedImage wheel;
+        int bodyHalfWidth;
+        int bodyHalfHeight;
+        int wheelHalfWidth;
+        int wheelHalfHeight;
+    }
+
+    /**
+     * @param angleBuckets number of pre-rotated body images over a full turn on unaccelerated pipelines,
+     *                     {@link #AUTO_ANGLE_BUCKETS}, or 0 to always rotate a single sprite
+     */
+    public CarSpriteCache(int angleBuckets) {
+        this.angleBuckets = angleBuckets < 0 ? AUTO_ANGLE_BUCKETS : angleBuckets;
+    }
+
+    /**
+     * Draws the body centred at logical {@code (x, y)}. {@code g2d} must carry the scale {@code (scaleX, scaleY)}.
+     */
+    public void drawBody(Graphics2D g2d, double x, double y, float angle, double scaleX, double scaleY) {
+        Sprites sprites = validate(g2d.getDeviceConfiguration(), scaleX, scaleY);
+
+        g2d.translate(x, y);
+        if (sprites.buckets > 0) {
+            double turn = 2 * Math.PI;
+            double position = (angle % turn + turn) % turn / turn * sprites.buckets;
+            long nearest = Math.round(position);
+            int bucket = (int) (nearest % sprites.buckets);
+            BufferedImage image = sprites.rotatedBodies[bucket];
+            if (image == null) {
+                image = renderBody(sprites, bucket * turn / sprites.buckets);
+                sprites.rotatedBodies[bucket] = image;
+            }
+            // Only turned when the bucket is off by half a device pixel or more at the body's outermost pixel.
+            double residual = (position - nearest) * turn / sprites.buckets;
+            boolean turned = Math.abs(residual) * Math.max(sprites.bodyHalfWidth, sprites.bodyHalfHeight) >= 0.5;
+            if (turned) g2d.rotate(-residual);
+            g2d.scale(1.0 / scaleX, 1.0 / scaleY);
+            g2d.drawImage(image, -sprites.bodyHalfWidth, -sprites.bodyHalfHeight, null);
+            g2d.scale(scaleX, scaleY);
+            if (turned) g2d.rotate(residual);
+        } else {
+            // Rotating in logical space around a device-resolution sprite keeps non-uniform scales exact.
+            g2d.rotate(-angle);
+            g2d.scale(1.0 / scaleX, 1.0 / scaleY);
+            Object interpolation = g2d.getRenderingHint(RenderingHints.KEY_INTERPOLATION);
+            g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g2d.drawImage(sprites.body, -sprites.bodyHalfWidth, -sprites.bodyHalfHeight, null);
+            if (interpolation != null) g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, interpolation);
+            g2d.scale(scaleX, scaleY);
+            g2d.rotate(angle);
+        }
+        g2d.translate(-x, -y);
+    }
+
+    /**
+     * Draws a wheel centred at logical {@code (x, y)}. Wheels are rotationally symmetric, so no angle is needed.
+     */
+    public void drawWheel(Graphics2D g2d, double x, double y, double scaleX, double scaleY) {
+        Sprites sprites = validate(g2d.getDeviceConfiguration(), scaleX, scaleY);
+
+        g2d.translate(x, y);
+        g2d.scale(1.0 / scaleX, 1.0 / scaleY);
+        g2d.drawImage(sprites.wheel, -sprites.wheelHalfWidth, -sprites.wheelHalfHeight, null);
+        g2d.scale(scaleX, scaleY);
+        g2d.translate(-x, -y);
+    }
+
+    private Sprites validate(GraphicsConfiguration gc, double scaleX, double scaleY) {
+        int found = cached.length - 1;
+        for (int i = 0; i < cached.length; i++) {
+            Sprites sprites = cached[i];
+            if (sprites != null && sprites.config == gc && sprites.scaleX == scaleX && sprites.scaleY == scaleY) {
+                found = i;
+                break;
+            }
+        }
+        Sprites sprites = cached[found];
+        if (sprites == null || sprites.config != gc || sprites.scaleX != scaleX || sprites.scaleY != scaleY) {
+            // Takes the place of the least recently drawn scale.
+            sprites = createSprites(gc, scaleX, scaleY);
+        }
+        System.arraycopy(cached, 0, cached, 1, found);
+        cached[0] = sprites;
+        return sprites;
+    }
+
+    private Sprites createSprites(GraphicsConfiguration gc, double scaleX, double scaleY) {
+        Sprites sprites = new Sprites();
+        sprites.config = gc;
+        sprites.scaleX = scaleX;
+        sprites.scaleY = scaleY;
+
+        sprites.bodyHalfWidth = (int) Math.ceil(CarRenderer.BODY_EXTENT * scaleX);
+        sprites.bodyHalfHeight = (int) Math.ceil(CarRenderer.BODY_EXTENT * scaleY);
+        sprites.wheelHalfWidth = (int) Math.ceil(CarRenderer.WHEEL_EXTENT * scaleX);
+        sprites.wheelHalfHeight = (int) Math.ceil(CarRenderer.WHEEL_EXTENT * scaleY);
+
+        int buckets;
+        if (angleBuckets == 0 || gc.getImageCapabilities().isAccelerated()) {
+            buckets = 0;
+        } else {
+            long spriteBytes = 4L * (2 * sprites.bodyHalfWidth) * (2 * sprites.bodyHalfHeight);
+            buckets = angleBuckets == AUTO_ANGLE_BUCKETS
+                    ? (int) Math.ceil(2 * Math.PI * Math.max(sprites.bodyHalfWidth, sprites.bodyHalfHeight))
+                    : angleBuckets;
+            buckets = (int) Math.min(Math.min(buckets, MAX_ANGLE_BUCKETS), MAX_SPRITE_BYTES / spriteBytes);
+            if (buckets < MIN_ANGLE_BUCKETS) buckets = 0;
+        }
+        sprites.buckets = buckets;
+
+        sprites.body = renderBody(sprites, 0.0);
+        sprites.rotatedBodies = buckets > 0 ? new BufferedImage[buckets] : null;
+
+        sprites.wheel = createImage(sprites, sprites.wheelHalfWidth, sprites.wheelHalfHeight);
+        Graphics2D g = prepare(sprites, sprites.wheel, sprites.wheelHalfWidth, sprites.wheelHalfHeight);
+        try {
+            CarRenderer.paintWheel(g);
+        } finally {
+            g.dispose();
+        }
+        return sprites;
+    }
+
+    private BufferedImage renderBody(Sprites sprites, double angle) {
+        BufferedImage image = createImage(sprites, sprites.bodyHalfWidth, sprites.bodyHalfHeight);
+        Graphics2D g = prepare(sprites, image, sprites.bodyHalfWidth, sprites.bodyHalfHeight);
+        try {
+            g.rotate(-angle);
+            CarRenderer.paintBody(g);
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+
+    private static BufferedImage createImage(Sprites sprites, int halfWidth, int halfHeight) {
+        return sprites.config.createCompatibleImage(2 * halfWidth, 2 * halfHeight, Transparency.TRANSLUCENT);
+    }
+
+    private static Graphics2D prepare(Sprites sprites, BufferedImage image, int halfWidth, int halfHeight) {
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+        g.translate(halfWidth, halfHeight);
+        g.scale(sprites.scaleX, sprites.scaleY);
+        return g;
+    }
+
+    public void clear() {
+        Arrays.fill(cached, null);
+    }
+}
@@ -0,0 +1,72 @@
+package net.cosyfluf;
+
+import java.util.Arrays;
+
+/**
+ * Deterministic collectible placement along a level. Spawn slots are laid out every
+ * {@link #SPAWN_INTERVAL_METERS}; the random state in front of every slot is remembered so any x range can be
+ * (re)spawned independently when its terrain chunk streams in.
+ */
+public class CollectibleGenerator implements CollectibleSource {
+
+    public static final float SPAWN_INTERVAL_METERS = 15.0f;
+    public static final float MAX_HEIGHT_METERS = 7.0f;
+    public static final float SPAWN_CHANCE = 0.7f;
+
+    public interface HeightLookup {
+        float heightMetersAt(float xMeters);
+    }
+
+    private final LevelRandom random;
+    private final HeightLookup terrainHeight;
+    private final float endXMeters;
+
+    private long[] slotRandomState = new long[64];
+    private float[] slotX = new float[64];
+    private int knownSlots;
+
+    public CollectibleGenerator(long seed, float startXMeters, float endXMeters, HeightLookup terrainHeight) {
+        this.random = new LevelRandom(seed);
+        this.terrainHeight = terrainHeight;
+        this.endXMeters = endXMeters;
+        this.slotRandomState[0] = random.getState();
+        this.slotX[0] = startXMeters;
+        this.knownSlots = 1;
+    }
+
+    @Override
+    public void spawnInRange(float fromXMeters, float toXMeters, SpawnConsumer consumer) {
+        float limit = Math.min(toXMeters, endXMeters);
+        while (slotX[knownSlots - 1] < limit) {
+            discoverNextSlot();
+        }
+
+        int slot = Arrays.binarySearch(slotX, 0, knownSlots, fromXMeters);
+        if (slot < 0) slot = -slot - 1;
+
+        for (; slot < knownSlots && slotX[slot] < limit; slot++) {
+            random.setState(slotRandomState[slot]);
+            if (random.nextFloat() < SPAWN_CHANCE) {
+                float x = slotX[slot];
+                float terrainYAtX = terrainHeight.heightMetersAt(x);
+                consumer.spawn(slot, x, terrainYAtX + (random.nextFloat() * MAX_HEIGHT_METERS) + 1.0f);
+            }
+        }
+    }
+
+    private void discoverNextSlot() {
+        int last = knownSlots - 1;
+        random.setState(slotRandomState[last]);
+        if (random.nextFloat() < SPAWN_CHANCE) {
+            random.nextFloat();
+        }
+
+        if (knownSlots == slotX.length) {
+            slotX = Arrays.copyOf(slotX, knownSlots * 2);
+            slotRandomState = Arrays.copyOf(slotRandomState, knownSlots * 2);
+        }
+        slotRandomState[knownSlots] = random.getState();
+        slotX[knownSlots] = slotX[last] + SPAWN_INTERVAL_METERS;
+        knownSlots++;
+    }
+}
@@ -0,0 +1,159 @@
+package net.cosyfluf;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * The live collectibles kept sorted by x so the visible window or the area around the car can be found by
+ * binary search. Positions and radii are mirrored in parallel float arrays for the analytic pickup test. Picking
+ * one up only tombstones its slot through {@link Collectible#indexHandle}; tombstones are compacted away when a
+ * chunk unloads or by {@link #compact()}.
+ */
+public class CollectibleIndex {
+
+    private Collectible[] items = new Collectible[32];
+    private float[] xs = new float[32];
+    private float[] ys = new float[32];
+    private float[] radii = new float[32];
+    private int size;
+    private int live;
+
+    public void add(Collectible collectible) {
+        if (size == items.length) {
+            items = Arrays.copyOf(items, size * 2);
+            xs = Arrays.copyOf(xs, size * 2);
+            ys = Arrays.copyOf(ys, size * 2);
+            radii = Arrays.copyOf(radii, size * 2);
+        }
+        int position = upperBound(collectible.x);
+        System.arraycopy(items, position, items, position + 1, size - position);
+        System.arraycopy(xs, position, xs, position + 1, size - position);
+        System.arraycopy(ys, position, ys, position + 1, size - position);
+        System.arraycopy(radii, position, radii, position + 1, size - position);
+        items[position] = collectible;
+        xs[position] = collectible.x;
+        ys[position] = collectible.y;
+        radii[position] = collectible.getRadiusMeters();
+        size++;
+        live++;
+        for (int i = position; i < size; i++) {
+            if (items[i] != null) items[i].indexHandle = i;
+        }
+    }
+
+    public boolean contains(Collectible collectible) {
+        int handle = collectible.indexHandle;
+        return handle >= 0 && handle < size && items[handle] == collectible;
+    }
+
+    public void remove(Collectible collectible) {
+        if (!contains(collectible)) return;
+        items[collectible.indexHandle] = null;
+        collectible.indexHandle = -1;
+        live--;
+    }
+
+    /**
+     * Drops every collectible of {@code chunkIndex}, handing the still live ones to {@code onRemove}, and compacts
+     * the tombstones left by earlier pickups.
+     */
+    public void removeChunk(int chunkIndex, Consumer<Collectible> onRemove) {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            Collectible collectible = items[i];
+            if (collectible == null) continue;
+            if (collectible.chunkIndex == chunkIndex) {
+                collectible.indexHandle = -1;
+                live--;
+                onRemove.accept(collectible);
+                continue;
+            }
+            collectible.indexHandle = kept;
+            items[kept] = collectible;
+            xs[kept] = xs[i];
+            ys[kept] = ys[i];
+            radii[kept] = radii[i];
+            kept++;
+        }
+        Arrays.fill(items, kept, size, null);
+        size = kept;
+    }
+
+    /**
+     * Drops the tombstones left by earlier pickups, e.g. once the picked-up collectibles have been added back.
+     */
+    public void compact() {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            Collectible collectible = items[i];
+            if (collectible == null) continue;
+            collectible.indexHandle = kept;
+            items[kept] = collectible;
+            xs[kept] = xs[i];
+            ys[kept] = ys[i];
+            radii[kept] = radii[i];
+            kept++;
+        }
+        Arrays.fill(items, kept, size, null);
+        size = kept;
+    }
+
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            if (items[i] != null) items[i].indexHandle = -1;
+        }
+        Arrays.fill(items, 0, size, null);
+        size = 0;
+        live = 0;
+    }
+
+    /**
+     * First position whose x is at least {@code xMeters}. Iterate from here with {@link #get(int)} while
+     * {@link #xAt(int)} stays inside the range; tombstoned positions return {@code null}.
+     */
+    public int lowerBound(float xMeters) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (xs[mid] < xMeters) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    private int upperBound(float xMeters) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (xs[mid] <= xMeters) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int liveCount() {
+        return live;
+    }
+
+    public float xAt(int position) {
+        return xs[position];
+    }
+
+    public float yAt(int position) {
+        return ys[position];
+    }
+
+    public float radiusAt(int position) {
+        return radii[position];
+    }
+
+    public Collectible get(int position) {
+        return items[position];
+    }
+}
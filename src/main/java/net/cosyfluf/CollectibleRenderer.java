@@ -0,0 +1,29 @@
+package net.cosyfluf;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.geom.Ellipse2D;
+
+import static net.cosyfluf.PhysicsConstants.PIXELS_PER_METER;
+
+public class CollectibleRenderer {
+
+    private static final Color FILL_COLOR = Color.CYAN.darker();
+    private static final BasicStroke OUTLINE_STROKE = new BasicStroke(1f);
+
+    private final Ellipse2D.Float circle = new Ellipse2D.Float();
+
+    public void draw(Graphics2D g2d, float xMeters, float yMeters, float radiusMeters, int screenHeight, double cameraOffsetX) {
+        float xPixel = xMeters * PIXELS_PER_METER - (float)cameraOffsetX;
+        float yPixel = screenHeight - (yMeters * PIXELS_PER_METER);
+
+        float radiusPixels = radiusMeters * PIXELS_PER_METER;
+        circle.setFrame(xPixel - radiusPixels, yPixel - radiusPixels, radiusPixels * 2, radiusPixels * 2);
+        g2d.setColor(FILL_COLOR);
+        g2d.fill(circle);
+        g2d.setColor(Color.WHITE);
+        g2d.setStroke(OUTLINE_STROKE);
+        g2d.draw(circle);
+    }
+}
@@ -0,0 +1,13 @@
+package net.cosyfluf;
+
+/**
+ * Supplies the collectible spawn points of a level for an x range, in JBox2D meters.
+ */
+public interface CollectibleSource {
+
+    interface SpawnConsumer {
+        void spawn(int slot, float xMeters, float yMeters);
+    }
+
+    void spawnInRange(float fromXMeters, float toXMeters, SpawnConsumer consumer);
+}
@@ -0,0 +1,32 @@
+package net.cosyfluf;
+
+public final class DriveInput {
+
+    public static final int NONE = 0;
+    public static final int FORWARD = 1;
+    public static final int REVERSE = 1 << 1;
+    public static final int NITRO = 1 << 2;
+
+    private DriveInput() {
+    }
+
+    public static int of(boolean forward, boolean reverse, boolean nitro) {
+        int input = NONE;
+        if (forward) input |= FORWARD;
+        if (reverse) input |= REVERSE;
+        if (nitro) input |= NITRO;
+        return input;
+    }
+
+    public static boolean isForward(int input) {
+        return (input & FORWARD) != 0;
+    }
+
+    public static boolean isReverse(int input) {
+        return (input & REVERSE) != 0;
+    }
+
+    public static boolean isNitro(int input) {
+        return (input & NITRO) != 0;
+    }
+}
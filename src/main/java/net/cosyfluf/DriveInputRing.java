@@ -0,0 +1,159 @@
+package net.cosyfluf;
+
+import java.awt.event.KeyEvent;
+
+/**
+ * Single-producer/single-consumer ring of timestamped drive key edges. The EDT's key listener is the only
+ * producer; the simulation, under the panel's frame lock, is the only consumer and drains the ring at every tick.
+ * Slots are preallocated and the two cursors are the only shared state, so neither side locks or allocates.
+ * <p>
+ * A key that went down since the previous tick counts as held for the next one even if it is already up again,
+ * so a tap shorter than a tick still drives one tick. For every edge the latency from its OS timestamp
+ * ({@link KeyEvent#getWhen()}, millisecond resolution) to the tick that applied it goes to the {@link FrameProfiler}.
+ * The tick times travel on to the renderer inside the {@link RenderSnapshot}, which records how long they took to
+ * reach the end of a drawn frame.
+ */
+public class DriveInputRing {
+
+    public static final int CAPACITY = 256;
+
+    private static final int MASK = CAPACITY - 1;
+    private static final int PRESSED = 1 << 31;
+    private static final int HISTORY_MASK = RenderSnapshot.INPUT_HISTORY - 1;
+
+    private final int[] edges = new int[CAPACITY];
+    private final long[] whenMillis = new long[CAPACITY];
+
+    // Written by the producer only; read by the consumer.
+    private volatile long tail;
+    // Written by the consumer only; read by the producer to see free slots.
+    private volatile long head;
+    private volatile long droppedEdges;
+
+    // Producer-side state, EDT only: key auto-repeat sends presses for keys that are already down.
+    private int producerHeld;
+
+    // Consumer-side state.
+    private int held;
+    private int latched;
+    private long epochOffsetNanos;
+    private long appliedEdges;
+    private final long[] appliedTickNanos = new long[RenderSnapshot.INPUT_HISTORY];
+
+    // Render-side state: edges whose display latency has been recorded.
+    private long renderedEdges;
+
+    public DriveInputRing() {
+        calibrate();
+    }
+
+    public static int inputFor(int keyCode) {
+        switch (keyCode) {
+            case KeyEvent.VK_W:
+                return DriveInput.FORWARD;
+            case KeyEvent.VK_S:
+                return DriveInput.REVERSE;
+            case KeyEvent.VK_SPACE:
+                return DriveInput.NITRO;
+            default:
+                return DriveInput.NONE;
+        }
+    }
+
+    /**
+     * Producer side: queues the edge if {@code keyCode} is a drive key and its state actually changed. Returns
+     * false if the ring is full, which only happens when nothing has drained it for {@value #CAPACITY} edges.
+     */
+    public boolean keyEvent(int keyCode, boolean pressed, long whenMillis) {
+        int input = inputFor(keyCode);
+        if (input == DriveInput.NONE || ((producerHeld & input) != 0) == pressed) return true;
+
+        long t = tail;
+        if (t - head == CAPACITY) {
+            droppedEdges++;
+            return false;
+        }
+        producerHeld = pressed ? producerHeld | input : producerHeld & ~input;
+        int slot = (int) (t & MASK);
+        edges[slot] = pressed ? input | PRESSED : input;
+        this.whenMillis[slot] = whenMillis;
+        tail = t + 1;
+        return true;
+    }
+
+    /**
+     * Consumer side: applies every queued edge and returns the {@link DriveInput} for the tick about to run.
+     */
+    public int nextTickInput(FrameProfiler profiler) {
+        long now = System.nanoTime();
+        long h = head;
+        long t = tail;
+        for (; h < t; h++) {
+            int slot = (int) (h & MASK);
+            int edge = edges[slot];
+            int input = edge & ~PRESSED;
+            if ((edge & PRESSED) != 0) {
+                held |= input;
+                latched |= input;
+            } else {
+                held &= ~input;
+            }
+
+            profiler.record(FrameProfiler.Phase.INPUT_LATENCY, now - (whenMillis[slot] * 1_000_000L - epochOffsetNanos));
+            appliedTickNanos[(int) (appliedEdges++ & HISTORY_MASK)] = now;
+        }
+        head = h;
+
+        int input = held | latched;
+        latched = DriveInput.NONE;
+        return input;
+    }
+
+    /**
+     * Consumer side, while filling a snapshot: the tick times of the most recently applied edges.
+     */
+    public void copyAppliedEdges(RenderSnapshot snapshot) {
+        snapshot.inputEdges = appliedEdges;
+        System.arraycopy(appliedTickNanos, 0, snapshot.inputTickNanos, 0, appliedTickNanos.length);
+    }
+
+    /**
+     * Render side, once a frame of {@code snapshot} has been drawn: records how long the edges that were not on
+     * screen yet took to get there. Presentation itself (buffer flip, vsync) is not included, and if more than
+     * {@link RenderSnapshot#INPUT_HISTORY} edges arrived since the last frame only the latest are measured.
+     */
+    public void frameRendered(RenderSnapshot snapshot, FrameProfiler profiler) {
+        long edges = snapshot.inputEdges;
+        if (edges <= renderedEdges) return;
+        long now = System.nanoTime();
+        for (long e = Math.max(renderedEdges, edges - RenderSnapshot.INPUT_HISTORY); e < edges; e++) {
+            profiler.record(FrameProfiler.Phase.DISPLAY_LATENCY, now - snapshot.inputTickNanos[(int) (e & HISTORY_MASK)]);
+        }
+        renderedEdges = edges;
+    }
+
+    /**
+     * Consumer side, at the start of a run: takes over the current key state without measuring anything, and
+     * re-reads the offset between the wall clock of the event timestamps and {@link System#nanoTime()}.
+     */
+    public void reset() {
+        long h = head;
+        long t = tail;
+        for (; h < t; h++) {
+            int edge = edges[(int) (h & MASK)];
+            int input = edge & ~PRESSED;
+            held = (edge & PRESSED) != 0 ? held | input : held & ~input;
+        }
+        head = h;
+        latched = DriveInput.NONE;
+        calibrate();
+    }
+
+    private void calibrate() {
+        epochOffsetNanos = System.currentTimeMillis() * 1_000_000L - System.nanoTime();
+    }
+
+    public long getDroppedEdges() {
+        return droppedEdges;
+    }
+}
@@ -0,0 +1,13 @@
+package net.cosyfluf;
+
+/**
+ * An automatic driver. Implementations must not keep per-run state in shared fields: the training farm
+ * evaluates one controller on several levels at once, from different threads.
+ */
+public interface DriverController {
+
+    /**
+     * Returns the {@link DriveInput} bits for the coming tick.
+     */
+    int decide(DriverObservation observation);
+}
@@ -0,0 +1,49 @@
+package net.cosyfluf;
+
+/**
+ * Runs one controller through one level headless and unthrottled and scores it by the distance reached.
+ * A run ends on game over, at the finish, after {@code maxTicks}, or once the car has made no progress for
+ * {@link #STUCK_SECONDS}.
+ */
+public final class DriverEvaluator {
+
+    public static final int DEFAULT_MAX_TICKS = 60 * PhysicsConstants.DEFAULT_PHYSICS_HZ;
+
+    private static final float STUCK_SECONDS = 5.0f;
+    private static final float PROGRESS_METERS = 0.5f;
+
+    private DriverEvaluator() {
+    }
+
+    /**
+     * @return meters between the start and the furthest point the chassis reached
+     */
+    public static float evaluate(DriverController controller, LevelInfo level, LevelAsset asset, int maxTicks) {
+        GameSession session = new GameSession(level, PhysicsConstants.DEFAULT_PHYSICS_HZ,
+                GameSession.PickupMode.ANALYTIC, asset);
+        session.setVerbose(false);
+        DriverObservation observation = new DriverObservation();
+        int stuckTicks = (int) (STUCK_SECONDS * session.getPhysicsHz());
+
+        float startX = session.getCar().getX();
+        float furthestX = startX;
+        float lastProgressX = startX;
+        long lastProgressTick = 0;
+
+        GameSession.TickResult result = GameSession.TickResult.RUNNING;
+        while (result == GameSession.TickResult.RUNNING && session.getTickCount() < maxTicks) {
+            observation.capture(session);
+            result = session.tick(controller.decide(observation));
+
+            float x = session.getCar().getX();
+            furthestX = Math.max(furthestX, x);
+            if (furthestX > lastProgressX + PROGRESS_METERS) {
+                lastProgressX = furthestX;
+                lastProgressTick = session.getTickCount();
+            } else if (session.getTickCount() - lastProgressTick > stuckTicks) {
+                break;
+            }
+        }
+        return furthestX - startX;
+    }
+}
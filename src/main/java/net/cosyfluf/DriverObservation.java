@@ -0,0 +1,53 @@
+package net.cosyfluf;
+
+import org.jbox2d.common.Vec2;
+
+/**
+ * What an automatic driver sees each tick: the car's attitude and motion plus the terrain height at
+ * {@link #LOOKAHEAD_POINTS} points ahead, relative to the ground under the car. {@link #features} holds the same
+ * values scaled to roughly unit range for learned controllers. One instance per evaluation; it is overwritten
+ * by every {@link #capture}.
+ */
+public class DriverObservation {
+
+    public static final int LOOKAHEAD_POINTS = 8;
+    public static final float LOOKAHEAD_SPACING_METERS = 2.0f;
+    public static final int FEATURES = 6 + LOOKAHEAD_POINTS;
+
+    public float angle;
+    public float angularVelocity;
+    public float velocityX;
+    public float velocityY;
+    public float nitroFuel;
+    public float groundClearance;
+    public final float[] lookahead = new float[LOOKAHEAD_POINTS];
+
+    public final float[] features = new float[FEATURES];
+
+    public void capture(GameSession session) {
+        Car car = session.getCar();
+        Vec2 velocity = car.chassisBody.getLinearVelocity();
+        float x = car.getX();
+        float ground = session.getTerrainYInterpolatedMeters(x);
+
+        angle = car.getAngle();
+        angularVelocity = car.chassisBody.getAngularVelocity();
+        velocityX = velocity.x;
+        velocityY = velocity.y;
+        nitroFuel = car.currentNitroFuel / PhysicsConstants.NITRO_MAX_FUEL;
+        groundClearance = car.getY() - ground;
+        for (int i = 0; i < LOOKAHEAD_POINTS; i++) {
+            lookahead[i] = session.getTerrainYInterpolatedMeters(x + (i + 1) * LOOKAHEAD_SPACING_METERS) - ground;
+        }
+
+        features[0] = angle;
+        features[1] = angularVelocity * 0.2f;
+        features[2] = velocityX * 0.1f;
+        features[3] = velocityY * 0.1f;
+        features[4] = nitroFuel;
+        features[5] = groundClearance * 0.5f;
+        for (int i = 0; i < LOOKAHEAD_POINTS; i++) {
+            features[6 + i] = lookahead[i] / ((i + 1) * LOOKAHEAD_SPACING_METERS);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package net.cosyfluf;
+
+/**
+ * Wall-clock accumulator for a fixed physics rate. Each wake-up of the simulation asks how many steps are due;
+ * leftover time tells the renderer how far past the current simulation state it is drawing.
+ */
+public class FixedStepLoop {
+
+    private final long stepNanos;
+    private final int maxStepsPerFrame;
+
+    private long lastTimeNanos;
+    private long accumulatorNanos;
+    private long droppedSteps;
+
+    public FixedStepLoop(int stepsPerSecond, int maxStepsPerFrame) {
+        if (stepsPerSecond <= 0) {
+            throw new IllegalArgumentException("stepsPerSecond must be positive: " + stepsPerSecond);
+        }
+        this.stepNanos = 1_000_000_000L / stepsPerSecond;
+        this.maxStepsPerFrame = maxStepsPerFrame;
+    }
+
+    public void reset(long nowNanos) {
+        lastTimeNanos = nowNanos;
+        accumulatorNanos = 0;
+    }
+
+    public int advance(long nowNanos) {
+        long elapsed = nowNanos - lastTimeNanos;
+        lastTimeNanos = nowNanos;
+        if (elapsed < 0) elapsed = 0;
+        accumulatorNanos += elapsed;
+
+        int steps = (int) Math.min(accumulatorNanos / stepNanos, maxStepsPerFrame);
+        accumulatorNanos -= steps * stepNanos;
+
+        if (accumulatorNanos >= stepNanos) {
+            long behind = accumulatorNanos / stepNanos;
+            droppedSteps += behind;
+            accumulatorNanos -= behind * stepNanos;
+        }
+        return steps;
+    }
+
+    public long getStepNanos() {
+        return stepNanos;
+    }
+
+    /**
+     * Wall-clock time, on the {@link System#nanoTime()} scale, that the latest simulated step corresponds to.
+     */
+    public long getSimulatedTimeNanos() {
+        return lastTimeNanos - accumulatorNanos;
+    }
+
+    public long getDroppedSteps() {
+        return droppedSteps;
+    }
+}
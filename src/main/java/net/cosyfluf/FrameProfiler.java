@@ -0,0 +1,181 @@
+package net.cosyfluf;
+
+import org.jbox2d.dynamics.Profile;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+/**
+ * Nanosecond timings per simulation and render phase over a sliding window of the last {@link #WINDOW} samples
+ * each. Recording is one ring store and two counter updates in a log-linear histogram (eight sub-buckets per
+ * power of two, so percentiles are exact to within 12.5%); nothing is allocated. {@link #summarize()} turns the
+ * histograms into p50/p99/max for the overlay and is meant to run a few times per second, not per frame.
+ * <p>
+ * Each phase must only be recorded from one thread: the simulation phases from the simulation thread, the render
+ * phases from whichever thread is drawing. A summary taken meanwhile may be off by the sample being written.
+ */
+public class FrameProfiler {
+
+    public enum Phase {
+        INPUT("Eingabe"),
+        CAR_UPDATE("Car.update"),
+        WORLD_STEP("world.step"),
+        BOX2D_COLLIDE("  collide"),
+        BOX2D_SOLVE("  solve"),
+        BOX2D_SOLVE_TOI("  solveTOI"),
+        BOX2D_BROADPHASE("  broadphase"),
+        RULES("Spielregeln"),
+        TERRAIN("Terrain"),
+        CAR("Auto"),
+        COLLECTIBLES("Collectibles"),
+        HUD("HUD"),
+        FRAME("Frame gesamt"),
+        INPUT_LATENCY("Taste -> Tick"),
+        DISPLAY_LATENCY("Tick -> Bild");
+
+        public final String label;
+
+        Phase(String label) {
+            this.label = label;
+        }
+    }
+
+    public static final int WINDOW = 512;
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_LIMIT = 2 * SUB_BUCKETS;
+    private static final int BUCKETS = LINEAR_LIMIT + (64 - SUB_BUCKET_BITS - 1) * SUB_BUCKETS;
+
+    private static final Phase[] PHASES = Phase.values();
+
+    private final long[][] window = new long[PHASES.length][WINDOW];
+    private final int[][] histogram = new int[PHASES.length][BUCKETS];
+    private final int[] position = new int[PHASES.length];
+    private final int[] count = new int[PHASES.length];
+
+    private final long[] p50 = new long[PHASES.length];
+    private final long[] p99 = new long[PHASES.length];
+    private final long[] max = new long[PHASES.length];
+
+    private final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+    private final long[] gcCountAtStart = new long[collectors.size()];
+    private final long[] gcTimeAtStart = new long[collectors.size()];
+    private final long[] gcCount = new long[collectors.size()];
+    private final long[] gcTimeMillis = new long[collectors.size()];
+    private final String[] gcNames = new String[collectors.size()];
+
+    public FrameProfiler() {
+        for (int i = 0; i < collectors.size(); i++) {
+            GarbageCollectorMXBean collector = collectors.get(i);
+            gcNames[i] = collector.getName();
+            gcCountAtStart[i] = Math.max(0, collector.getCollectionCount());
+            gcTimeAtStart[i] = Math.max(0, collector.getCollectionTime());
+        }
+    }
+
+    public void record(Phase phase, long nanos) {
+        int p = phase.ordinal();
+        if (nanos < 0) nanos = 0;
+        int slot = position[p];
+        if (count[p] == WINDOW) {
+            histogram[p][bucket(window[p][slot])]--;
+        } else {
+            count[p]++;
+        }
+        window[p][slot] = nanos;
+        histogram[p][bucket(nanos)]++;
+        position[p] = slot + 1 == WINDOW ? 0 : slot + 1;
+    }
+
+    /**
+     * Records JBox2D's own breakdown of the step that just ran; its timers report fractional milliseconds.
+     */
+    public void recordWorldProfile(Profile profile) {
+        record(Phase.BOX2D_COLLIDE, (long) (profile.collide * 1e6f));
+        record(Phase.BOX2D_SOLVE, (long) (profile.solve * 1e6f));
+        record(Phase.BOX2D_SOLVE_TOI, (long) (profile.solveTOI * 1e6f));
+        record(Phase.BOX2D_BROADPHASE, (long) (profile.broadphase * 1e6f));
+    }
+
+    static int bucket(long nanos) {
+        if (nanos < LINEAR_LIMIT) return (int) nanos;
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR_LIMIT + (exponent - SUB_BUCKET_BITS - 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Upper bound of the values that fall into {@code bucket}.
+     */
+    static long bucketLimit(int bucket) {
+        if (bucket < LINEAR_LIMIT) return bucket;
+        int exponent = (bucket - LINEAR_LIMIT) / SUB_BUCKETS + SUB_BUCKET_BITS + 1;
+        long subBucket = (bucket - LINEAR_LIMIT) % SUB_BUCKETS;
+        return ((SUB_BUCKETS + subBucket + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+    public void summarize() {
+        for (int p = 0; p < PHASES.length; p++) {
+            int samples = count[p];
+            long largest = 0;
+            for (int i = 0; i < samples; i++) {
+                largest = Math.max(largest, window[p][i]);
+            }
+            max[p] = largest;
+            p50[p] = Math.min(largest, percentile(p, samples, 0.50));
+            p99[p] = Math.min(largest, percentile(p, samples, 0.99));
+        }
+        for (int i = 0; i < collectors.size(); i++) {
+            GarbageCollectorMXBean collector = collectors.get(i);
+            gcCount[i] = Math.max(0, collector.getCollectionCount()) - gcCountAtStart[i];
+            gcTimeMillis[i] = Math.max(0, collector.getCollectionTime()) - gcTimeAtStart[i];
+        }
+    }
+
+    private long percentile(int phase, int samples, double fraction) {
+        if (samples == 0) return 0;
+        long rank = (long) Math.ceil(samples * fraction);
+        long seen = 0;
+        int[] counts = histogram[phase];
+        for (int b = 0; b < BUCKETS; b++) {
+            seen += counts[b];
+            if (seen >= rank) return bucketLimit(b);
+        }
+        return bucketLimit(BUCKETS - 1);
+    }
+
+    public int getSampleCount(Phase phase) {
+        return count[phase.ordinal()];
+    }
+
+    public long getP50Nanos(Phase phase) {
+        return p50[phase.ordinal()];
+    }
+
+    public long getP99Nanos(Phase phase) {
+        return p99[phase.ordinal()];
+    }
+
+    public long getMaxNanos(Phase phase) {
+        return max[phase.ordinal()];
+    }
+
+    public int getCollectorCount() {
+        return gcNames.length;
+    }
+
+    public String getCollectorName(int index) {
+        return gcNames[index];
+    }
+
+    /** Collections since this profiler was created, as of the last {@link #summarize()}. */
+    public long getCollectionCount(int index) {
+        return gcCount[index];
+    }
+
+    public long getCollectionTimeMillis(int index) {
+        return gcTimeMillis[index];
+    }
+}
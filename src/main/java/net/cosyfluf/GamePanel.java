@@ -1,11 +1,5 @@
 package net.cosyfluf;
 
-import org.jbox2d.collision.shapes.ChainShape;
-import org.jbox2d.collision.shapes.CircleShape;
-import org.jbox2d.common.Vec2;
-import org.jbox2d.dynamics.*;
-import org.jbox2d.dynamics.joints.Joint;
-
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
@@ -13,29 +7,26 @@ import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseAdapter;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.Date;
 import java.util.List;
-import java.util.Random;
-import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
 import javax.swing.JPanel;
 import javax.swing.Timer;
 
-import static net.cosyfluf.PhysicsConstants.PIXELS_PER_METER;
-import static net.cosyfluf.PhysicsConstants.GRAVITY;
-import static net.cosyfluf.PhysicsConstants.TIME_STEP;
-import static net.cosyfluf.PhysicsConstants.WHEEL_RADIUS;
-
 public class GamePanel extends JPanel implements ActionListener {
 
-    public static final int LOGICAL_WIDTH = 1200;
-    public static final int LOGICAL_HEIGHT = 700;
-
-    private static final int TERRAIN_WIDTH_FACTOR = 5;
-    private static final double TERRAIN_OFFSET_Y = LOGICAL_HEIGHT * 0.7;
-    private static final int GAME_OVER_FALL_THRESHOLD_Y_PIXELS = 200;
-    private static final float COLLECTIBLE_SPAWN_INTERVAL_METERS = 15.0f;
-    private static final float COLLECTIBLE_MAX_HEIGHT_METERS = 7.0f;
+    public static final int LOGICAL_WIDTH = GameSession.LOGICAL_WIDTH;
+    public static final int LOGICAL_HEIGHT = GameSession.LOGICAL_HEIGHT;
 
     private MainFrame mainFrame;
     private List<LevelInfo> availableLevels;
@@ -47,23 +38,87 @@ public class GamePanel extends JPanel implements ActionListener {
         GAME_RUNNING,
         GAME_OVER
     }
-    private GameState currentState;
-
-    private World world;
-    private Car car;
-    private Body groundBody;
-
-    private double[] terrainPointsPixels;
-    private Vec2[] terrainPointsMeters;
-    private List<Collectible> collectibles;
-
-    private Set<Integer> activeKeys = new HashSet<>();
-    private Random random;
+    private volatile GameState currentState;
+
+    private GameSession session;
+    private ReplayRecorder recorder;
+    private final boolean recordReplays = Boolean.parseBoolean(System.getProperty("hillclimb.recordReplays", "true"));
+    private final boolean recordTelemetry = Boolean.parseBoolean(System.getProperty(TelemetryRecorder.TELEMETRY_PROPERTY, "true"));
+    private TelemetryRecorder telemetry;
+    private final CarRenderer carRenderer = new CarRenderer();
+    private GhostRecorder ghostRecorder;
+    // Replaced, never modified, so snapshots can hand it to the renderer.
+    private List<GhostPlayback> ghosts = Collections.emptyList();
+    // Level the loaded ghosts belong to; null once a new best run has been saved and they need reloading.
+    private volatile LevelInfo ghostsLevel;
+    private final GhostRenderer ghostRenderer = new GhostRenderer(carRenderer);
+    private final int maxGhosts = Integer.getInteger("hillclimb.maxGhosts", GhostTrack.DEFAULT_MAX_GHOSTS);
+    private final CollectibleRenderer collectibleRenderer = new CollectibleRenderer();
+    private final TerrainTileCache terrainTileCache = new TerrainTileCache();
+    private final RenderScaler renderScaler;
+
+    // A paint context is created for every gradient fill, so the sky is rendered once into a column and stretched.
+    private static final BufferedImage SKY = createSky();
+    private static final Font HUD_FONT = new Font("Arial", Font.BOLD, 16);
+    private static final Font SPEED_FONT = new Font("Arial", Font.BOLD, 24);
+    private static final Font TITLE_FONT = new Font("Arial", Font.BOLD, 60);
+    private static final Font GAME_OVER_FONT = new Font("Arial", Font.BOLD, 80);
+    private static final Font BUTTON_FONT = new Font("Arial", Font.BOLD, 30);
+    private static final Color MENU_SHADE = new Color(0, 0, 0, 180);
+    private static final Color GAME_OVER_SHADE = new Color(0, 0, 0, 200);
+    private static final Color MENU_BUTTON = new Color(60, 179, 113);
+    private static final Color MENU_BUTTON_SELECTED = MENU_BUTTON.brighter();
+    private static final Color RETRY_BUTTON = new Color(30, 144, 255);
+    private static final Color MENU_RETURN_BUTTON = new Color(100, 149, 237);
+    private static final Font PROFILER_FONT = new Font(Font.MONOSPACED, Font.PLAIN, 12);
+    private static final Color PROFILER_SHADE = new Color(0, 0, 0, 170);
+    private static final long PROFILER_SUMMARY_INTERVAL_NANOS = 500_000_000L;
+    private static final FrameProfiler.Phase[] PROFILER_PHASES = FrameProfiler.Phase.values();
+
+    private final TextBuffer hudText = new TextBuffer(32);
+
+    private final FrameProfiler profiler = new FrameProfiler();
+    private final TextBuffer profilerText = new TextBuffer(64);
+    private volatile boolean profilerOverlay = Boolean.getBoolean("hillclimb.profiler");
+    private long lastProfilerSummaryNanos;
+    private final String[] menuLabels;
+    private int menuScrollRow = 0;
+    private final LevelThumbnailCache thumbnails = new LevelThumbnailCache(this::requestRepaint);
+
+    // The level list scrolls; only the visible rows are laid out and ask for their thumbnails.
+    private static final int MENU_LIST_TOP = LOGICAL_HEIGHT / 4 + 40;
+    private static final int MENU_ROW_HEIGHT = 56;
+    private static final int MENU_VISIBLE_ROWS = (LOGICAL_HEIGHT - MENU_LIST_TOP - 10) / MENU_ROW_HEIGHT;
+    private static final int MENU_BUTTON_WIDTH = 640;
+    private static final Font MENU_ENTRY_FONT = new Font("Arial", Font.BOLD, 24);
+    private static final Color THUMBNAIL_PLACEHOLDER = new Color(40, 40, 40);
+
+    private final DriveInputRing inputRing = new DriveInputRing();
+    // Keys pressed during a run; the simulation thread handles them before its next tick.
+    private final ArrayBlockingQueue<Integer> runningKeys = new ArrayBlockingQueue<>(16);
+
+    // Replays and ghosts of finished runs are written here, not on the simulation thread inside the frame lock.
+    private static final ExecutorService RECORDING_WRITER = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "recording-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
 
-    private double cameraOffsetX = 0.0;
     private Timer gameTimer;
 
-    private float upsideDownTimer = 0.0f;
+    private final int physicsHz;
+    private final FixedStepLoop stepLoop;
+    private Thread simulationThread;
+    private final RenderSnapshotExchange snapshots = new RenderSnapshotExchange();
+    private final CarPose renderPose = new CarPose();
+
+    // Guards session and menu state; the simulation thread and, outside of a run, the EDT go through it. Renderers
+    // only take it to draw the menu and game-over overlays.
+    private final ReentrantLock frameLock = new ReentrantLock();
+    // Serializes paintComponent and the active render thread over the renderer-side caches.
+    private final ReentrantLock renderLock = new ReentrantLock();
+    private volatile boolean activeRendering = false;
+    private volatile boolean simulationRunning = false;
 
     private List<Rectangle> menuButtonsBounds;
     private List<Rectangle> gameOverButtonsBounds;
@@ -78,40 +133,89 @@ public class GamePanel extends JPanel implements ActionListener {
         addKeyListener(new KeyAdapter() {
             @Override
             public void keyPressed(KeyEvent e) {
-                activeKeys.add(e.getKeyCode());
-                handleInputInState(e.getKeyCode());
+                inputRing.keyEvent(e.getKeyCode(), true, e.getWhen());
+                if (e.getKeyCode() == KeyEvent.VK_F3) {
+                    profilerOverlay = !profilerOverlay;
+                    requestRepaint();
+                }
+                if (simulationRunning && currentState == GameState.GAME_RUNNING) {
+                    runningKeys.offer(e.getKeyCode());
+                    return;
+                }
+                frameLock.lock();
+                try {
+                    handleInputInState(e.getKeyCode());
+                } finally {
+                    frameLock.unlock();
+                }
             }
 
             @Override
             public void keyReleased(KeyEvent e) {
-                activeKeys.remove(e.getKeyCode());
+                inputRing.keyEvent(e.getKeyCode(), false, e.getWhen());
             }
         });
 
+        addMouseWheelListener(e -> {
+            if (currentState != GameState.MAIN_MENU) return;
+            frameLock.lock();
+            try {
+                if (currentState == GameState.MAIN_MENU) {
+                    scrollMenuTo(menuScrollRow + e.getWheelRotation());
+                }
+            } finally {
+                frameLock.unlock();
+            }
+            requestRepaint();
+        });
+
         addMouseListener(new MouseAdapter() {
             @Override
             public void mouseClicked(MouseEvent e) {
-                handleMouseClickInState(e.getX(), e.getY());
+                if (currentState == GameState.GAME_RUNNING) return;
+                frameLock.lock();
+                try {
+                    handleMouseClickInState(e.getX(), e.getY());
+                } finally {
+                    frameLock.unlock();
+                }
             }
         });
         addMouseMotionListener(new MouseAdapter() {
             @Override
             public void mouseMoved(MouseEvent e) {
-                handleMouseMoveInState(e.getX(), e.getY());
+                if (currentState != GameState.MAIN_MENU) return;
+                frameLock.lock();
+                try {
+                    handleMouseMoveInState(e.getX(), e.getY());
+                } finally {
+                    frameLock.unlock();
+                }
             }
         });
 
-        gameTimer = new Timer((int)(TIME_STEP * 1000), this);
-
-        world = new World(GRAVITY);
-        collectibles = new ArrayList<>();
+        physicsHz = Integer.getInteger("hillclimb.physicsHz", PhysicsConstants.DEFAULT_PHYSICS_HZ);
+        stepLoop = new FixedStepLoop(physicsHz, PhysicsConstants.MAX_STEPS_PER_FRAME);
+        gameTimer = new Timer(frameIntervalMillis(), this);
+        gameTimer.setCoalesce(true);
+        renderScaler = RenderScaler.fromSystemProperty(frameIntervalMillis() * 1_000_000L);
 
         this.currentLevel = availableLevels.get(0);
-        generateTerrain();
+        session = new GameSession(currentLevel, physicsHz);
 
+        menuLabels = new String[availableLevels.size() + 1];
         menuButtonsBounds = new ArrayList<>();
+        for (int i = 0; i < availableLevels.size(); i++) {
+            menuLabels[i] = "Level " + (i + 1) + ": " + availableLevels.get(i).name;
+            menuButtonsBounds.add(new Rectangle());
+        }
+        menuLabels[availableLevels.size()] = "Exit Game";
+        menuButtonsBounds.add(new Rectangle());
         gameOverButtonsBounds = new ArrayList<>();
+        gameOverButtonsBounds.add(new Rectangle());
+        gameOverButtonsBounds.add(new Rectangle());
 
+        publishSnapshot();
         showMainMenu();
     }
 
@@ -147,6 +251,20 @@ public class GamePanel extends JPanel implements ActionListener {
         }
     }
 
+    private void selectMenuEntry(int index) {
+        selectedMenuLevelIndex = Math.max(0, Math.min(availableLevels.size(), index));
+        if (selectedMenuLevelIndex < menuScrollRow) {
+            scrollMenuTo(selectedMenuLevelIndex);
+        } else if (selectedMenuLevelIndex >= menuScrollRow + MENU_VISIBLE_ROWS) {
+            scrollMenuTo(selectedMenuLevelIndex - MENU_VISIBLE_ROWS + 1);
+        }
+        requestRepaint();
+    }
+
+    private void scrollMenuTo(int row) {
+        menuScrollRow = Math.max(0, Math.min(menuLabels.length - MENU_VISIBLE_ROWS, row));
+    }
+
     private void handleMouseMoveInState(int mouseX, int mouseY) {
 
         double scaleX = (double) LOGICAL_WIDTH / getWidth();
@@ -165,7 +283,7 @@ public class GamePanel extends JPanel implements ActionListener {
                 }
             }
             if (oldSelected != selectedMenuLevelIndex) {
-                repaint();
+                requestRepaint();
             }
         }
 
@@ -175,12 +293,16 @@ public class GamePanel extends JPanel implements ActionListener {
         if (currentState == GameState.MAIN_MENU) {
             switch (keyCode) {
                 case KeyEvent.VK_UP:
-                    selectedMenuLevelIndex = Math.max(0, selectedMenuLevelIndex - 1);
-                    repaint();
+                    selectMenuEntry(selectedMenuLevelIndex - 1);
                     break;
                 case KeyEvent.VK_DOWN:
-                    selectedMenuLevelIndex = Math.min(availableLevels.size(), selectedMenuLevelIndex + 1);
-                    repaint();
+                    selectMenuEntry(selectedMenuLevelIndex + 1);
+                    break;
+                case KeyEvent.VK_PAGE_UP:
+                    selectMenuEntry(selectedMenuLevelIndex - MENU_VISIBLE_ROWS);
+                    break;
+                case KeyEvent.VK_PAGE_DOWN:
+                    selectMenuEntry(selectedMenuLevelIndex + MENU_VISIBLE_ROWS);
                     break;
                 case KeyEvent.VK_ENTER:
                     if (selectedMenuLevelIndex < availableLevels.size()) {
@@ -202,8 +324,9 @@ public class GamePanel extends JPanel implements ActionListener {
         } else if (currentState == GameState.GAME_RUNNING) {
 
             if (keyCode == KeyEvent.VK_ESCAPE) {
-                if (mainFrame.isFullscreen()) {
-                    mainFrame.exitFullscreenAndContinueGame();
+                if (mainFrame != null && mainFrame.isFullscreen()) {
+                    // Leaving fullscreen stops the active render thread, which must not wait on our lock.
+                    EventQueue.invokeLater(mainFrame::exitFullscreenAndContinueGame);
                 } else {
                     showMainMenu();
                 }
@@ -211,333 +334,509 @@ public class GamePanel extends JPanel implements ActionListener {
         }
     }
 
+    private static BufferedImage createSky() {
+        BufferedImage sky = new BufferedImage(1, LOGICAL_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = sky.createGraphics();
+        g2d.setPaint(new GradientPaint(0, 0, new Color(135, 206, 250), 0, LOGICAL_HEIGHT, new Color(70, 130, 180)));
+        g2d.fillRect(0, 0, 1, LOGICAL_HEIGHT);
+        g2d.dispose();
+        return sky;
+    }
+
+    private int frameIntervalMillis() {
+        int refreshRate = DisplayMode.REFRESH_RATE_UNKNOWN;
+        if (!GraphicsEnvironment.isHeadless()) {
+            refreshRate = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+                    .getDisplayMode().getRefreshRate();
+        }
+        if (refreshRate == DisplayMode.REFRESH_RATE_UNKNOWN || refreshRate <= 0) {
+            refreshRate = PhysicsConstants.DEFAULT_PHYSICS_HZ;
+        }
+        return Math.max(1, 1000 / refreshRate);
+    }
+
     public void startGameTimer() {
-        if (!gameTimer.isRunning()) {
+        frameLock.lock();
+        try {
+            if (!simulationRunning) {
+                stepLoop.reset(System.nanoTime());
+                simulationRunning = true;
+            }
+            if (simulationThread == null) {
+                simulationThread = new Thread(this::runSimulation, "simulation");
+                simulationThread.setDaemon(true);
+                simulationThread.start();
+            } else {
+                LockSupport.unpark(simulationThread);
+            }
+        } finally {
+            frameLock.unlock();
+        }
+        if (!activeRendering && !gameTimer.isRunning()) {
             gameTimer.start();
         }
     }
 
+    /**
+     * Stops the simulation; once this returns, no tick is in progress and none will start until
+     * {@link #startGameTimer()}.
+     */
     public void stopGameTimer() {
+        frameLock.lock();
+        try {
+            simulationRunning = false;
+        } finally {
+            frameLock.unlock();
+        }
         if (gameTimer.isRunning()) {
             gameTimer.stop();
         }
     }
 
-    public void showMainMenu() {
-        currentState = GameState.MAIN_MENU;
-        stopGameTimer();
-        selectedMenuLevelIndex = 0;
-        repaint();
+    public void setActiveRendering(boolean active) {
+        frameLock.lock();
+        try {
+            activeRendering = active;
+            if (active) {
+                gameTimer.stop();
+            } else if (simulationRunning) {
+                gameTimer.start();
+            }
+        } finally {
+            frameLock.unlock();
+        }
     }
 
-    public void startGame(int levelIndex) {
-        this.currentLevel = availableLevels.get(levelIndex);
-        currentState = GameState.GAME_RUNNING;
-        mainFrame.setLastPlayedLevelIndex(levelIndex);
-        setupGame();
-        startGameTimer();
-        requestFocusInWindow();
-        repaint();
+    public GameSession getSession() {
+        return session;
     }
 
-    public void showGameOverScreen() {
-        currentState = GameState.GAME_OVER;
-        stopGameTimer();
-        repaint();
+    public boolean isActiveRendering() {
+        return activeRendering;
     }
 
-    private void setupGame() {
-
-        world = new World(GRAVITY);
-        world.setContactListener(new MyContactListener(this));
-
-        cleanupPhysicsObjects();
-
-        collectibles.clear();
-
-        generateTerrain();
-
-        float initialCarX = (float) (LOGICAL_WIDTH * currentLevel.initialCarXFactor / PIXELS_PER_METER);
-
-        float frontWheelX_meters = initialCarX + Car.CHASSIS_FRONT_WHEEL_OFFSET_X;
-        float rearWheelX_meters = initialCarX - Car.CHASSIS_REAR_WHEEL_OFFSET_X;
-
-        float frontWheelTerrainY_pixels = (float)getTerrainYInterpolatedPixels(frontWheelX_meters * PIXELS_PER_METER, terrainPointsPixels);
-        float frontWheelTerrainY_meters = toJBox2dY(frontWheelTerrainY_pixels, LOGICAL_HEIGHT);
-
-        float rearWheelTerrainY_pixels = (float)getTerrainYInterpolatedPixels(rearWheelX_meters * PIXELS_PER_METER, terrainPointsPixels);
-        float rearWheelTerrainY_meters = toJBox2dY(rearWheelTerrainY_pixels, LOGICAL_HEIGHT);
-
-        float highestTerrainY_meters = Math.max(frontWheelTerrainY_meters, rearWheelTerrainY_meters);
-
-        float initialCarY = highestTerrainY_meters
-                + WHEEL_RADIUS
-                + (Car.CHASSIS_HEIGHT / 2)
-                + 0.1f;
-
-        car = new Car(world, initialCarX, initialCarY);
-
-        generateCollectibles();
-
-        activeKeys.clear();
-        cameraOffsetX = 0.0;
-        upsideDownTimer = 0.0f;
+    private void requestRepaint() {
+        if (!activeRendering) {
+            repaint();
+        }
     }
 
-    private void cleanupPhysicsObjects() {
-        List<Body> bodiesToDestroy = new ArrayList<>();
-        for (Body b = world.getBodyList(); b != null; b = b.getNext()) {
-            bodiesToDestroy.add(b);
-        }
-        for (Body b : bodiesToDestroy) {
-            world.destroyBody(b);
+    public void showMainMenu() {
+        frameLock.lock();
+        try {
+            currentState = GameState.MAIN_MENU;
+            stopGameTimer();
+            selectedMenuLevelIndex = 0;
+            menuScrollRow = 0;
+        } finally {
+            frameLock.unlock();
         }
+        requestRepaint();
+    }
 
-        List<Joint> jointsToDestroy = new ArrayList<>();
-        for (Joint j = world.getJointList(); j != null; j = j.getNext()) {
-            jointsToDestroy.add(j);
-        }
-        for (Joint j : jointsToDestroy) {
-            world.destroyJoint(j);
+    public void startGame(int levelIndex) {
+        frameLock.lock();
+        try {
+            this.currentLevel = availableLevels.get(levelIndex);
+            currentState = GameState.GAME_RUNNING;
+            if (mainFrame != null) mainFrame.setLastPlayedLevelIndex(levelIndex);
+            setupGame();
+            startGameTimer();
+        } finally {
+            frameLock.unlock();
         }
-
-        groundBody = null;
-        car = null;
-        collectibles.clear();
+        requestFocusInWindow();
+        requestRepaint();
     }
 
-    private void generateTerrain() {
-        terrainPointsPixels = new double[LOGICAL_WIDTH * TERRAIN_WIDTH_FACTOR];
-        random = new Random(currentLevel.seed);
-
-        double currentY = TERRAIN_OFFSET_Y;
-        double currentSlope = 0.0;
-        final double maxSlopeChange = 0.01;
-        final double maxSlope = 0.15;
-
-        for (int i = 0; i < terrainPointsPixels.length; i++) {
-            terrainPointsPixels[i] = currentY + Math.sin(i * currentLevel.terrainSmoothness) * currentLevel.terrainAmplitude * 0.8 +
-                    Math.cos(i * currentLevel.terrainSmoothness * 0.7) * currentLevel.terrainAmplitude * 0.5 +
-                    (random.nextDouble() - 0.5) * currentLevel.terrainNoiseFactor;
-
-            currentSlope += (random.nextDouble() - 0.5) * maxSlopeChange;
-            currentSlope = Math.max(-maxSlope, Math.min(maxSlope, currentSlope));
-            currentY += currentSlope * 15;
-
-            if (currentY > LOGICAL_HEIGHT * 0.95) currentY = LOGICAL_HEIGHT * 0.95;
-            if (currentY < LOGICAL_HEIGHT * 0.4) currentY = LOGICAL_HEIGHT * 0.4;
+    public void showGameOverScreen() {
+        frameLock.lock();
+        try {
+            currentState = GameState.GAME_OVER;
+            stopGameTimer();
+        } finally {
+            frameLock.unlock();
         }
+        requestRepaint();
+    }
 
-        for (int iter = 0; iter < 4; iter++) {
-            double[] smoothed = new double[terrainPointsPixels.length];
-            for (int i = 0; i < terrainPointsPixels.length; i++) {
-                double sum = terrainPointsPixels[i];
-                int count = 1;
-                if (i > 0) { sum += terrainPointsPixels[i - 1]; count++; }
-                if (i < terrainPointsPixels.length - 1) { sum += terrainPointsPixels[i + 1]; count++; }
-                smoothed[i] = sum / count;
+    private void setupGame() {
+        // Retrying a level resets the session and rewinds its recorders instead of building them anew.
+        if (session.getLevel() == currentLevel && ghostRecorder != null) {
+            if (recorder != null) {
+                recorder.reset();
+            } else {
+                session.reset();
             }
-            terrainPointsPixels = smoothed;
+            ghostRecorder.rewind();
+            if (telemetry != null) telemetry.rewind(telemetryFile());
+        } else {
+            session = new GameSession(currentLevel, physicsHz);
+            session.setProfiler(profiler);
+            recorder = recordReplays ? new ReplayRecorder(session) : null;
+            ghostRecorder = new GhostRecorder(session);
+            finishTelemetry();
+            telemetry = recordTelemetry ? new TelemetryRecorder(session, telemetryFile()) : null;
         }
-
-        terrainPointsMeters = new Vec2[terrainPointsPixels.length];
-        for (int i = 0; i < terrainPointsPixels.length; i++) {
-            float xMeter = (float) (i / PIXELS_PER_METER);
-            float yMeter = toJBox2dY(terrainPointsPixels[i], LOGICAL_HEIGHT);
-            terrainPointsMeters[i] = new Vec2(xMeter, yMeter);
+        if (ghostsLevel != currentLevel) {
+            List<GhostPlayback> loaded = new ArrayList<>();
+            for (GhostTrack track : GhostTrack.loadBest(currentLevel, maxGhosts)) {
+                loaded.add(track.newPlayback());
+            }
+            ghosts = Collections.unmodifiableList(loaded);
+            ghostsLevel = currentLevel;
         }
 
-        BodyDef groundBd = new BodyDef();
-        groundBody = world.createBody(groundBd);
-
-        ChainShape groundShape = new ChainShape();
-        groundShape.createChain(terrainPointsMeters, terrainPointsMeters.length);
-
-        FixtureDef groundFd = new FixtureDef();
-        groundFd.shape = groundShape;
-        groundFd.friction = 0.8f;
-        groundBody.createFixture(groundFd);
+        inputRing.reset();
+        runningKeys.clear();
+        publishSnapshot();
     }
 
-    private void generateCollectibles() {
-        collectibles.clear();
-        Random collectibleRandom = new Random(currentLevel.seed + 1);
-
-        float startXOffsetMeters = (float) (LOGICAL_WIDTH * currentLevel.initialCarXFactor / PIXELS_PER_METER + 5.0f);
-        float endXOffsetMeters = (float) (terrainPointsPixels.length / PIXELS_PER_METER - (LOGICAL_WIDTH / 4.0 / PIXELS_PER_METER));
+    private Path telemetryFile() {
+        return Telemetry.telemetryDirectory().resolve(Telemetry.fileName(currentLevel, new Date()));
+    }
 
-        for (float x = startXOffsetMeters; x < endXOffsetMeters; x += COLLECTIBLE_SPAWN_INTERVAL_METERS) {
-            if (collectibleRandom.nextFloat() < 0.7f) {
-                float terrainYAtX = toJBox2dY(getTerrainYInterpolatedPixels(x * PIXELS_PER_METER, terrainPointsPixels), LOGICAL_HEIGHT);
-                float collectibleY = terrainYAtX + (collectibleRandom.nextFloat() * COLLECTIBLE_MAX_HEIGHT_METERS) + 1.0f;
+    @Override
+    public void actionPerformed(ActionEvent e) {
+        requestRepaint();
+    }
 
-                BodyDef bd = new BodyDef();
-                bd.type = BodyType.STATIC;
-                bd.position.set(x, collectibleY);
+    /**
+     * Body of the simulation thread: runs the ticks that are due, publishes the result to the renderers and
+     * sleeps until the next tick. It parks while no run is in progress.
+     */
+    private void runSimulation() {
+        while (true) {
+            boolean running;
+            long waitNanos = 0;
+            frameLock.lock();
+            try {
+                running = simulationRunning && currentState == GameState.GAME_RUNNING;
+                if (running) {
+                    advanceSimulation();
+                    waitNanos = stepLoop.getSimulatedTimeNanos() + stepLoop.getStepNanos() - System.nanoTime();
+                }
+            } finally {
+                frameLock.unlock();
+            }
+            if (!running) {
+                LockSupport.park(this);
+            } else if (waitNanos > 0) {
+                LockSupport.parkNanos(this, waitNanos);
+            }
+        }
+    }
 
-                CircleShape shape = new CircleShape();
-                Collectible tempCollectible = new Collectible(null, Collectible.Type.NITRO_RECHARGE);
-                shape.setRadius(tempCollectible.getRadiusMeters());
+    private void advanceSimulation() {
+        handleRunningKeys();
+        int steps = stepLoop.advance(System.nanoTime());
+        for (int i = 0; i < steps && currentState == GameState.GAME_RUNNING; i++) {
+            update();
+        }
+        if (steps > 0) {
+            publishSnapshot();
+        }
+    }
 
-                FixtureDef fd = new FixtureDef();
-                fd.shape = shape;
-                fd.isSensor = true;
-                fd.filter.groupIndex = -1;
+    private void handleRunningKeys() {
+        Integer keyCode;
+        while (currentState == GameState.GAME_RUNNING && (keyCode = runningKeys.poll()) != null) {
+            handleInputInState(keyCode);
+        }
+    }
 
-                Body collectibleBody = world.createBody(bd);
-                collectibleBody.createFixture(fd).setUserData(tempCollectible);
+    /**
+     * Copies the session's current state into a render snapshot and hands it to the renderers. Callers hold the
+     * frame lock, which makes them the exchange's single producer.
+     */
+    private void publishSnapshot() {
+        snapshots.back().capture(session, stepLoop, ghosts, inputRing);
+        snapshots.publish();
+    }
 
-                tempCollectible.body = collectibleBody;
-                collectibles.add(tempCollectible);
+    /**
+     * Runs up to {@code ticks} ticks right away on the calling thread, exactly as the simulation thread would with
+     * the current keys, and publishes the result; for tests and benchmarks that stopped the simulation first. Stops
+     * early when the run ends.
+     */
+    public void simulateTicks(int ticks) {
+        frameLock.lock();
+        try {
+            handleRunningKeys();
+            for (int i = 0; i < ticks && currentState == GameState.GAME_RUNNING; i++) {
+                update();
             }
+            publishSnapshot();
+        } finally {
+            frameLock.unlock();
         }
     }
 
-    private float toJBox2dY(double swingY, int screenHeight) {
-        return (float) ((screenHeight - swingY) / PIXELS_PER_METER);
+    /**
+     * Publishes the session's state to the renderers after it was ticked directly, e.g. by a benchmark that
+     * stopped the simulation thread first.
+     */
+    public void refreshSnapshot() {
+        frameLock.lock();
+        try {
+            publishSnapshot();
+        } finally {
+            frameLock.unlock();
+        }
     }
 
-    private double getTerrainYInterpolatedPixels(double px, double[] terrainPoints) {
-        int x1 = (int) px;
-        if (x1 < 0) return terrainPoints[0];
-        if (x1 >= terrainPoints.length - 1) return terrainPoints[terrainPoints.length - 1];
-
-        double y1 = terrainPoints[x1];
-        double y2 = terrainPoints[x1 + 1];
-        double frac = px - x1;
-        return y1 * (1 - frac) + y2 * frac;
+    /**
+     * Called by {@link ActiveRenderer} on its own thread: draws the latest snapshot into the given buffer
+     * graphics. Returns false without drawing if a menu is shown and the EDT holds its state for too long.
+     */
+    public boolean renderActiveFrame(Graphics2D g2d, long lockTimeoutNanos) throws InterruptedException {
+        if (!renderLock.tryLock(lockTimeoutNanos, TimeUnit.NANOSECONDS)) {
+            return false;
+        }
+        try {
+            GameState state = currentState;
+            if (state == GameState.GAME_RUNNING) {
+                renderFrame(g2d, getWidth(), getHeight(), state);
+                return true;
+            }
+            if (!frameLock.tryLock(lockTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                return false;
+            }
+            try {
+                renderFrame(g2d, getWidth(), getHeight(), currentState);
+            } finally {
+                frameLock.unlock();
+            }
+            return true;
+        } finally {
+            renderLock.unlock();
+        }
     }
 
-    @Override
-    public void actionPerformed(ActionEvent e) {
-        if (currentState == GameState.GAME_RUNNING) {
-            update();
+    /**
+     * Draws the latest snapshot into {@code g2d}, e.g. into an offscreen image.
+     */
+    public void paintOffscreen(Graphics2D g2d, int width, int height) {
+        renderLock.lock();
+        try {
+            GameState state = currentState;
+            if (state == GameState.GAME_RUNNING) {
+                renderFrame(g2d, width, height, state);
+                return;
+            }
+            frameLock.lock();
+            try {
+                renderFrame(g2d, width, height, currentState);
+            } finally {
+                frameLock.unlock();
+            }
+        } finally {
+            renderLock.unlock();
         }
-        repaint();
     }
 
     private void update() {
-        car.forward = activeKeys.contains(KeyEvent.VK_W);
-        car.reverse = activeKeys.contains(KeyEvent.VK_S);
-        car.nitroInput = activeKeys.contains(KeyEvent.VK_SPACE);
-        car.update();
-
-        world.step(PhysicsConstants.TIME_STEP, PhysicsConstants.VELOCITY_ITERATIONS, PhysicsConstants.POSITION_ITERATIONS);
-
-        double carXPixels = car.getX() * PIXELS_PER_METER;
-        double targetCameraX = carXPixels - LOGICAL_WIDTH / 3.0;
-
-        if (targetCameraX < 0) {
-            cameraOffsetX = 0.0;
-        } else if (targetCameraX > terrainPointsPixels.length - LOGICAL_WIDTH) {
-            cameraOffsetX = (double) (terrainPointsPixels.length - LOGICAL_WIDTH);
-        } else {
-            cameraOffsetX = targetCameraX;
+        long inputStart = System.nanoTime();
+        int input = inputRing.nextTickInput(profiler);
+        profiler.record(FrameProfiler.Phase.INPUT, System.nanoTime() - inputStart);
+
+        GameSession.TickResult result = recorder != null ? recorder.tick(input) : session.tick(input);
+        if (ghostRecorder != null) ghostRecorder.record();
+        if (telemetry != null) telemetry.record(input);
+        if (result != GameSession.TickResult.RUNNING) {
+            saveReplay();
+            saveGhost(result == GameSession.TickResult.FINISHED);
+            finishTelemetry();
         }
 
-        if (car.isUpsideDown()) {
-            upsideDownTimer += PhysicsConstants.TIME_STEP;
-            if (upsideDownTimer >= PhysicsConstants.UPSIDE_DOWN_GAME_OVER_TIME) {
+        switch (result) {
+            case UPSIDE_DOWN:
                 System.out.println("Game Over! Auto liegt über Kopf für zu lange Zeit.");
                 showGameOverScreen();
-            }
-        } else {
-            upsideDownTimer = 0.0f;
+                break;
+            case FELL:
+                System.out.println("Game Over! Auto zu tief gefallen.");
+                showGameOverScreen();
+                break;
+            case FINISHED:
+                System.out.println("Level geschafft! Zurück zum Menü.");
+                showMainMenu();
+                break;
+            default:
+                break;
         }
+    }
 
-        if (car.getY() < toJBox2dY(LOGICAL_HEIGHT + GAME_OVER_FALL_THRESHOLD_Y_PIXELS, LOGICAL_HEIGHT)) {
-            System.out.println("Game Over! Auto zu tief gefallen.");
-            showGameOverScreen();
-        }
+    private void saveReplay() {
+        if (recorder == null) return;
+        Replay replay = recorder.finish();
+        Date recordedAt = new Date();
+        RECORDING_WRITER.execute(() -> {
+            try {
+                Path file = replay.save(Replay.replayDirectory(), recordedAt);
+                System.out.println("Replay gespeichert: " + file);
+            } catch (IOException e) {
+                System.out.println("Replay konnte nicht gespeichert werden: " + e.getMessage());
+            }
+        });
+    }
 
-        if (car.getX() * PIXELS_PER_METER > terrainPointsPixels.length - LOGICAL_WIDTH / 4.0) {
-            System.out.println("Level geschafft! Zurück zum Menü.");
-            showMainMenu();
-        }
+    private void finishTelemetry() {
+        if (telemetry != null) telemetry.finish();
     }
 
-    public void handleCollectibleCollision(Car car, Collectible collectible) {
-        if (collectibles.contains(collectible)) {
-            System.out.println("Collectible gesammelt: " + collectible.type);
-            switch (collectible.type) {
-                case NITRO_RECHARGE:
-                    car.addNitroFuel(PhysicsConstants.NITRO_RECHARGE_AMOUNT);
-                    break;
+    private void saveGhost(boolean finished) {
+        if (ghostRecorder == null) return;
+        GhostRecorder.FinishedRun run = ghostRecorder.finishRun(GhostTrack.playerName(), finished);
+        RECORDING_WRITER.execute(() -> {
+            try {
+                if (run.saveIfBest()) {
+                    ghostsLevel = null;
+                    System.out.println("Neue Bestleistung als Ghost gespeichert ("
+                            + run.getEncodedBytes() + " Bytes).");
+                }
+            } catch (IOException e) {
+                System.out.println("Ghost konnte nicht gespeichert werden: " + e.getMessage());
             }
-            world.destroyBody(collectible.body);
-            collectibles.remove(collectible);
-        }
+        });
     }
 
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
-        Graphics2D g2d = (Graphics2D) g;
+        if (activeRendering) return;
+
+        paintOffscreen((Graphics2D) g, getWidth(), getHeight());
+    }
 
+    /**
+     * Draws the latest snapshot; outside of {@link GameState#GAME_RUNNING} the caller also holds the frame lock for
+     * the overlays. Nothing here may touch the session, which the simulation thread is stepping meanwhile.
+     */
+    private void renderFrame(Graphics2D g2d, int width, int height, GameState state) {
+        long frameStart = System.nanoTime();
         g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
         g2d.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
 
-        double scaleX = (double) getWidth() / LOGICAL_WIDTH;
-        double scaleY = (double) getHeight() / LOGICAL_HEIGHT;
-        g2d.scale(scaleX, scaleY);
-
-        Color skyBlueLight = new Color(135, 206, 250);
-        Color skyBlueDark = new Color(70, 130, 180);
-        GradientPaint skyGradient = new GradientPaint(0, 0, skyBlueLight, 0, LOGICAL_HEIGHT, skyBlueDark);
-        g2d.setPaint(skyGradient);
-        g2d.fillRect(0, 0, LOGICAL_WIDTH, LOGICAL_HEIGHT);
-
-        if (terrainPointsPixels != null) {
-            Color terrainTop = new Color(34, 139, 34);
-            Color terrainBottom = new Color(139, 69, 19);
-
-            g2d.setColor(terrainTop);
-            g2d.setStroke(new BasicStroke(2f));
+        double scaleX = (double) width / LOGICAL_WIDTH;
+        double scaleY = (double) height / LOGICAL_HEIGHT;
 
-            int startX = (int) cameraOffsetX;
-            if (startX < 0) startX = 0;
+        // The scene goes into the scaler's smaller buffer if it is active; the HUD always stays at full resolution.
+        boolean scaling = renderScaler.isScaling();
+        Graphics2D scene = scaling ? renderScaler.beginScene(g2d.getDeviceConfiguration(), width, height) : g2d;
+        double sceneScaleX = scaling ? scaleX * renderScaler.getScale() : scaleX;
+        double sceneScaleY = scaling ? scaleY * renderScaler.getScale() : scaleY;
+        scene.scale(sceneScaleX, sceneScaleY);
 
-            int endX = startX + LOGICAL_WIDTH;
-            if (endX > terrainPointsPixels.length) endX = terrainPointsPixels.length;
+        scene.drawImage(SKY, 0, 0, LOGICAL_WIDTH, LOGICAL_HEIGHT, null);
 
-            Polygon polygon = new Polygon();
-            polygon.addPoint(0, (int) terrainPointsPixels[startX]);
-            for (int i = startX + 1; i < endX; i++) {
-                polygon.addPoint((int) (i - cameraOffsetX), (int) terrainPointsPixels[i]);
-            }
-            polygon.addPoint(LOGICAL_WIDTH, LOGICAL_HEIGHT);
-            polygon.addPoint(0, LOGICAL_HEIGHT);
+        RenderSnapshot snapshot = snapshots.acquire();
+        float alpha = state == GameState.GAME_RUNNING ? snapshot.alphaAt(frameStart) : 1.0f;
+        renderPose.interpolate(snapshot.previousPose, snapshot.currentPose, alpha);
+        double cameraOffsetX = snapshot.previousCameraOffsetX
+                + (snapshot.currentCameraOffsetX - snapshot.previousCameraOffsetX) * alpha;
 
-            g2d.fill(polygon);
-            g2d.setColor(terrainBottom);
-            g2d.draw(polygon);
+        long phaseStart = System.nanoTime();
+        if (snapshot.level != null) {
+            terrainTileCache.draw(scene, snapshot.level, cameraOffsetX, sceneScaleX, sceneScaleY);
         }
+        phaseStart = recordPhase(FrameProfiler.Phase.TERRAIN, phaseStart);
+
+        if (snapshot.hasCar) {
+            scene.translate(-cameraOffsetX, 0.0);
+            double seconds = Math.max(0.0, (snapshot.tickCount - 1 + alpha) * snapshot.timeStep);
+            ghostRenderer.draw(scene, snapshot.ghosts, seconds, cameraOffsetX, LOGICAL_HEIGHT, sceneScaleX, sceneScaleY);
+            carRenderer.draw(scene, renderPose, snapshot.nitroActive && snapshot.nitroFuel > 0, LOGICAL_HEIGHT,
+                    sceneScaleX, sceneScaleY);
+            scene.translate(cameraOffsetX, 0.0);
+        }
+        phaseStart = recordPhase(FrameProfiler.Phase.CAR, phaseStart);
 
-        if (car != null) {
-            Graphics2D carG2d = (Graphics2D) g2d.create();
-            carG2d.translate(-cameraOffsetX, 0.0);
-            car.draw(carG2d, LOGICAL_HEIGHT);
-            carG2d.dispose();
+        for (int i = 0; i < snapshot.collectibleCount; i++) {
+            collectibleRenderer.draw(scene, snapshot.collectibleX[i], snapshot.collectibleY[i],
+                    snapshot.collectibleRadius[i], LOGICAL_HEIGHT, cameraOffsetX);
         }
 
-        if (collectibles != null) {
-            for (Collectible c : collectibles) {
-                c.draw(g2d, LOGICAL_HEIGHT, cameraOffsetX);
-            }
+        if (scaling) {
+            renderScaler.endScene(g2d, width, height);
+            g2d.scale(scaleX, scaleY);
         }
+        phaseStart = recordPhase(FrameProfiler.Phase.COLLECTIBLES, phaseStart);
 
-        drawHUD(g2d);
+        if (state == GameState.GAME_RUNNING && snapshot.hasCar) {
+            drawHUD(g2d, snapshot);
+        }
+        recordPhase(FrameProfiler.Phase.HUD, phaseStart);
 
-        if (currentState == GameState.MAIN_MENU) {
+        if (state == GameState.MAIN_MENU) {
             drawMainMenuOverlay(g2d);
-        } else if (currentState == GameState.GAME_OVER) {
+        } else if (state == GameState.GAME_OVER) {
             drawGameOverOverlay(g2d);
         }
+
+        if (profilerOverlay) {
+            drawProfilerOverlay(g2d, frameStart, snapshot);
+        }
+        // The frame time shows up in the overlay one frame late.
+        renderScaler.frameRendered(recordPhase(FrameProfiler.Phase.FRAME, frameStart) - frameStart);
+        inputRing.frameRendered(snapshot, profiler);
     }
 
-    private void drawHUD(Graphics2D g2d) {
-        if (currentState != GameState.GAME_RUNNING) return;
+    private long recordPhase(FrameProfiler.Phase phase, long start) {
+        long now = System.nanoTime();
+        profiler.record(phase, now - start);
+        return now;
+    }
+
+    private void drawProfilerOverlay(Graphics2D g2d, long now, RenderSnapshot snapshot) {
+        if (now - lastProfilerSummaryNanos >= PROFILER_SUMMARY_INTERVAL_NANOS) {
+            profiler.summarize();
+            lastProfilerSummaryNanos = now;
+        }
+
+        int lineHeight = 15;
+        int x = 10;
+        int y = 10;
+        int lines = PROFILER_PHASES.length + profiler.getCollectorCount() + (snapshot.hasStepper ? 3 : 2);
+        g2d.setColor(PROFILER_SHADE);
+        g2d.fillRect(x, y, 380, lines * lineHeight + 10);
 
+        g2d.setFont(PROFILER_FONT);
+        g2d.setColor(Color.WHITE);
+        y += lineHeight;
+        profilerText.clear().append("F3  µs über ").append(FrameProfiler.WINDOW).append(" Werte").draw(g2d, x + 5, y);
+        g2d.drawString("p50", x + 200, y);
+        g2d.drawString("p99", x + 260, y);
+        g2d.drawString("max", x + 320, y);
+
+        for (FrameProfiler.Phase phase : PROFILER_PHASES) {
+            y += lineHeight;
+            g2d.drawString(phase.label, x + 5, y);
+            profilerText.clear().appendOneDecimal(profiler.getP50Nanos(phase) / 1e3).draw(g2d, x + 200, y);
+            profilerText.clear().appendOneDecimal(profiler.getP99Nanos(phase) / 1e3).draw(g2d, x + 260, y);
+            profilerText.clear().appendOneDecimal(profiler.getMaxNanos(phase) / 1e3).draw(g2d, x + 320, y);
+        }
+        for (int i = 0; i < profiler.getCollectorCount(); i++) {
+            y += lineHeight;
+            profilerText.clear().append("GC ").append(profiler.getCollectorName(i)).append(": ")
+                    .append(profiler.getCollectionCount(i)).append(" x, ")
+                    .append(profiler.getCollectionTimeMillis(i)).append(" ms").draw(g2d, x + 5, y);
+        }
+        if (snapshot.hasStepper) {
+            y += lineHeight;
+            profilerText.clear().append("Physik ").append(snapshot.subSteps).append(" x ")
+                    .append(snapshot.velocityIterations).append('/').append(snapshot.positionIterations)
+                    .append(snapshot.continuous ? " Bullet" : "").append(", reduziert ")
+                    .append(snapshot.degradedTicks).append('/').append(snapshot.stepperTicks).append(" Ticks")
+                    .draw(g2d, x + 5, y);
+        }
+        y += lineHeight;
+        profilerText.clear().append("Render-Skala ").append(Math.round(renderScaler.getScale() * 100)).append('%')
+                .append(renderScaler.isAdaptive() ? " (auto, " : " (fest, ").append(renderScaler.getScaleChanges())
+                .append(" Wechsel)").draw(g2d, x + 5, y);
+    }
+
+    private void drawHUD(Graphics2D g2d, RenderSnapshot snapshot) {
         int barWidth = 200;
         int barHeight = 20;
         int padding = 10;
@@ -547,11 +846,11 @@ public class GamePanel extends JPanel implements ActionListener {
         g2d.setColor(Color.DARK_GRAY);
         g2d.fillRect(x, y, barWidth, barHeight);
 
-        float fillPercentage = car.currentNitroFuel / PhysicsConstants.NITRO_MAX_FUEL;
+        float fillPercentage = snapshot.nitroFuel / PhysicsConstants.NITRO_MAX_FUEL;
         int currentFillWidth = (int) (barWidth * fillPercentage);
-        if (car.isNitroActive) {
+        if (snapshot.nitroActive) {
             g2d.setColor(Color.YELLOW);
-        } else if (car.currentNitroFuel <= PhysicsConstants.NITRO_MAX_FUEL * 0.2f) {
+        } else if (snapshot.nitroFuel <= PhysicsConstants.NITRO_MAX_FUEL * 0.2f) {
             g2d.setColor(Color.RED);
         } else {
             g2d.setColor(Color.CYAN);
@@ -561,91 +860,109 @@ public class GamePanel extends JPanel implements ActionListener {
         g2d.setColor(Color.WHITE);
         g2d.drawRect(x, y, barWidth, barHeight);
 
-        g2d.setFont(new Font("Arial", Font.BOLD, 16));
+        g2d.setFont(HUD_FONT);
         g2d.setColor(Color.WHITE);
-        g2d.drawString("Nitro: " + (int)car.currentNitroFuel + "%", x + barWidth / 2 - 40, y + barHeight + 20);
+        hudText.clear().append("Nitro: ").append((int) snapshot.nitroFuel).append('%')
+                .draw(g2d, x + barWidth / 2 - 40, y + barHeight + 20);
 
-        if (car.nitroCooldownTimer > 0) {
+        if (snapshot.nitroCooldown > 0) {
             g2d.setColor(Color.ORANGE);
-            g2d.drawString("Cooldown: " + String.format("%.1f", car.nitroCooldownTimer) + "s", x + barWidth / 2 - 60, y + barHeight + 40);
+            hudText.clear().append("Cooldown: ").appendOneDecimal(snapshot.nitroCooldown).append('s')
+                    .draw(g2d, x + barWidth / 2 - 60, y + barHeight + 40);
         }
 
-        int speed = (int) (car.getSpeedMPS() * PhysicsConstants.METERS_PER_SECOND_TO_KMH_FACTOR);
-        g2d.setFont(new Font("Arial", Font.BOLD, 24));
+        int speed = (int) (snapshot.speedMPS * PhysicsConstants.METERS_PER_SECOND_TO_KMH_FACTOR);
+        g2d.setFont(SPEED_FONT);
         g2d.setColor(Color.WHITE);
-        g2d.drawString(speed + " km/h", padding, LOGICAL_HEIGHT - padding - 20);
+        hudText.clear().append(speed).append(" km/h").draw(g2d, padding, LOGICAL_HEIGHT - padding - 20);
     }
 
     private void drawMainMenuOverlay(Graphics2D g2d) {
 
-        menuButtonsBounds.clear();
-
-        g2d.setColor(new Color(0, 0, 0, 180));
+        g2d.setColor(MENU_SHADE);
         g2d.fillRect(0, 0, LOGICAL_WIDTH, LOGICAL_HEIGHT);
 
         g2d.setColor(Color.WHITE);
-        g2d.setFont(new Font("Arial", Font.BOLD, 60));
+        g2d.setFont(TITLE_FONT);
         String title = "Hill Climb Game";
         FontMetrics fm = g2d.getFontMetrics();
         int titleX = (LOGICAL_WIDTH - fm.stringWidth(title)) / 2;
         int titleY = LOGICAL_HEIGHT / 4;
         g2d.drawString(title, titleX, titleY);
 
-        g2d.setFont(new Font("Arial", Font.BOLD, 30));
-        int buttonY = LOGICAL_HEIGHT / 2 - availableLevels.size() * 30 / 2;
-        for (int i = 0; i < availableLevels.size(); i++) {
-            String levelText = "Level " + (i + 1) + ": " + availableLevels.get(i).name;
-            menuButtonsBounds.add(drawMenuButton(g2d, levelText, i, buttonY + i * 50));
+        g2d.setFont(MENU_ENTRY_FONT);
+        int lastRow = Math.min(menuLabels.length, menuScrollRow + MENU_VISIBLE_ROWS);
+        for (int i = 0; i < menuLabels.length; i++) {
+            if (i < menuScrollRow || i >= lastRow) {
+                menuButtonsBounds.get(i).setBounds(0, 0, 0, 0);
+                continue;
+            }
+            int y = MENU_LIST_TOP + (i - menuScrollRow) * MENU_ROW_HEIGHT;
+            drawMenuButton(g2d, menuLabels[i], i, y, menuButtonsBounds.get(i));
         }
 
-        menuButtonsBounds.add(drawMenuButton(g2d, "Exit Game", availableLevels.size(), buttonY + availableLevels.size() * 50));
+        g2d.setColor(Color.WHITE);
+        int arrowX = (LOGICAL_WIDTH + MENU_BUTTON_WIDTH) / 2 + 20;
+        if (menuScrollRow > 0) {
+            g2d.drawString("▲", arrowX, MENU_LIST_TOP + 20);
+        }
+        if (lastRow < menuLabels.length) {
+            g2d.drawString("▼", arrowX, MENU_LIST_TOP + MENU_VISIBLE_ROWS * MENU_ROW_HEIGHT - 20);
+        }
     }
 
-    private Rectangle drawMenuButton(Graphics2D g2d, String text, int index, int y) {
+    private void drawMenuButton(Graphics2D g2d, String text, int index, int y, Rectangle bounds) {
         FontMetrics fm = g2d.getFontMetrics();
-        int textWidth = fm.stringWidth(text);
         int textHeight = fm.getHeight();
 
-        int buttonWidth = textWidth + 60;
-        int buttonHeight = textHeight + 20;
-        int buttonX = (LOGICAL_WIDTH - buttonWidth) / 2;
-        Rectangle bounds = new Rectangle(buttonX, y - buttonHeight / 2, buttonWidth, buttonHeight);
+        int buttonHeight = MENU_ROW_HEIGHT - 8;
+        int buttonX = (LOGICAL_WIDTH - MENU_BUTTON_WIDTH) / 2;
+        bounds.setBounds(buttonX, y, MENU_BUTTON_WIDTH, buttonHeight);
 
         if (index == selectedMenuLevelIndex) {
-            g2d.setColor(new Color(60, 179, 113).brighter());
+            g2d.setColor(MENU_BUTTON_SELECTED);
         } else {
-            g2d.setColor(new Color(60, 179, 113));
+            g2d.setColor(MENU_BUTTON);
+        }
+        g2d.fillRoundRect(buttonX, y, MENU_BUTTON_WIDTH, buttonHeight, 20, 20);
+
+        int textX = buttonX + 20;
+        if (index < availableLevels.size()) {
+            int thumbnailY = y + (buttonHeight - LevelThumbnailCache.HEIGHT) / 2;
+            BufferedImage thumbnail = thumbnails.get(availableLevels.get(index));
+            if (thumbnail != null) {
+                g2d.drawImage(thumbnail, textX, thumbnailY, null);
+            } else {
+                g2d.setColor(THUMBNAIL_PLACEHOLDER);
+                g2d.fillRect(textX, thumbnailY, LevelThumbnailCache.WIDTH, LevelThumbnailCache.HEIGHT);
+            }
+            textX += LevelThumbnailCache.WIDTH + 20;
         }
-        g2d.fillRoundRect(buttonX, y - buttonHeight / 2, buttonWidth, buttonHeight, 20, 20);
 
         g2d.setColor(Color.WHITE);
-        g2d.drawRoundRect(buttonX, y - buttonHeight / 2, buttonWidth, buttonHeight, 20, 20);
-        g2d.drawString(text, buttonX + (buttonWidth - textWidth) / 2, y + textHeight / 4);
-
-        return bounds;
+        g2d.drawRoundRect(buttonX, y, MENU_BUTTON_WIDTH, buttonHeight, 20, 20);
+        g2d.drawString(text, textX, y + buttonHeight / 2 + textHeight / 4);
     }
 
     private void drawGameOverOverlay(Graphics2D g2d) {
 
-        gameOverButtonsBounds.clear();
-
-        g2d.setColor(new Color(0, 0, 0, 200));
+        g2d.setColor(GAME_OVER_SHADE);
         g2d.fillRect(0, 0, LOGICAL_WIDTH, LOGICAL_HEIGHT);
 
         g2d.setColor(Color.RED);
-        g2d.setFont(new Font("Arial", Font.BOLD, 80));
+        g2d.setFont(GAME_OVER_FONT);
         String gameOverText = "GAME OVER";
         FontMetrics fm = g2d.getFontMetrics();
         int titleX = (LOGICAL_WIDTH - fm.stringWidth(gameOverText)) / 2;
         int titleY = LOGICAL_HEIGHT / 3;
         g2d.drawString(gameOverText, titleX, titleY);
 
-        g2d.setFont(new Font("Arial", Font.BOLD, 30));
-        gameOverButtonsBounds.add(drawGameOverButton(g2d, "Try Again (ENTER)", 0, LOGICAL_HEIGHT / 2));
-        gameOverButtonsBounds.add(drawGameOverButton(g2d, "Main Menu (ESC)", 1, LOGICAL_HEIGHT / 2 + 60));
+        g2d.setFont(BUTTON_FONT);
+        drawGameOverButton(g2d, "Try Again (ENTER)", 0, LOGICAL_HEIGHT / 2, gameOverButtonsBounds.get(0));
+        drawGameOverButton(g2d, "Main Menu (ESC)", 1, LOGICAL_HEIGHT / 2 + 60, gameOverButtonsBounds.get(1));
     }
 
-    private Rectangle drawGameOverButton(Graphics2D g2d, String text, int index, int y) {
+    private void drawGameOverButton(Graphics2D g2d, String text, int index, int y, Rectangle bounds) {
         FontMetrics fm = g2d.getFontMetrics();
         int textWidth = fm.stringWidth(text);
         int textHeight = fm.getHeight();
@@ -653,17 +970,15 @@ public class GamePanel extends JPanel implements ActionListener {
         int buttonWidth = textWidth + 60;
         int buttonHeight = textHeight + 20;
         int buttonX = (LOGICAL_WIDTH - buttonWidth) / 2;
-        Rectangle bounds = new Rectangle(buttonX, y - buttonHeight / 2, buttonWidth, buttonHeight);
+        bounds.setBounds(buttonX, y - buttonHeight / 2, buttonWidth, buttonHeight);
 
-        g2d.setColor(new Color(30, 144, 255));
-        if (index == 1) g2d.setColor(new Color(100, 149, 237));
+        g2d.setColor(RETRY_BUTTON);
+        if (index == 1) g2d.setColor(MENU_RETURN_BUTTON);
 
         g2d.fillRoundRect(buttonX, y - buttonHeight / 2, buttonWidth, buttonHeight, 20, 20);
 
         g2d.setColor(Color.WHITE);
         g2d.drawRoundRect(buttonX, y - buttonHeight / 2, buttonWidth, buttonHeight, 20, 20);
         g2d.drawString(text, buttonX + (buttonWidth - textWidth) / 2, y + textHeight / 4);
-
-        return bounds;
     }
 }
\ No newline at end of file
@@ -0,0 +1,572 @@
+package net.cosyfluf;
+
+import org.jbox2d.collision.shapes.CircleShape;
+import org.jbox2d.dynamics.Body;
+import org.jbox2d.dynamics.BodyDef;
+import org.jbox2d.dynamics.BodyType;
+import org.jbox2d.dynamics.FixtureDef;
+import org.jbox2d.dynamics.Profile;
+import org.jbox2d.dynamics.World;
+import org.jbox2d.pooling.normal.DefaultWorldPool;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import static net.cosyfluf.PhysicsConstants.GRAVITY;
+import static net.cosyfluf.PhysicsConstants.PIXELS_PER_METER;
+import static net.cosyfluf.PhysicsConstants.WHEEL_RADIUS;
+
+/**
+ * Headless simulation of a single run: owns the JBox2D world, the car, the terrain and the collectibles.
+ * Nothing in here touches AWT or Swing, so sessions can be stepped off the EDT as fast as the CPU allows.
+ */
+public class GameSession implements StreamingTerrain.ChunkListener {
+
+    public static final int LOGICAL_WIDTH = 1200;
+    public static final int LOGICAL_HEIGHT = 700;
+
+    private static final int GAME_OVER_FALL_THRESHOLD_Y_PIXELS = 200;
+
+    public enum TickResult {
+        RUNNING,
+        UPSIDE_DOWN,
+        FELL,
+        FINISHED
+    }
+
+    /**
+     * How collectibles are picked up: {@link #SENSOR} gives each one a sensor body in the world, {@link #ANALYTIC}
+     * keeps them out of JBox2D and tests them against the chassis once per tick.
+     */
+    public enum PickupMode {
+        SENSOR,
+        ANALYTIC;
+
+        public static PickupMode fromSystemProperty() {
+            return valueOf(System.getProperty("hillclimb.pickupMode", ANALYTIC.name()).toUpperCase());
+        }
+    }
+
+    private static final float CHASSIS_HALF_WIDTH = Car.CHASSIS_WIDTH / 2;
+    private static final float CHASSIS_HALF_HEIGHT = Car.CHASSIS_HEIGHT / 2;
+    private static final float CHASSIS_REACH =
+            (float) Math.hypot(CHASSIS_HALF_WIDTH, CHASSIS_HALF_HEIGHT) + Collectible.RADIUS_METERS;
+
+    private final LevelInfo level;
+    private final int physicsHz;
+    private final float timeStep;
+    private final PickupMode pickupMode;
+
+    private StableBroadPhase broadPhase;
+    private World world;
+    private Car car;
+
+    private StreamingTerrain terrain;
+    private CollectibleSource collectibleSource;
+    private CollectibleIndex collectibles;
+    private final BitSet collectedSlots = new BitSet();
+    // Picked-up collectibles of the loaded chunks, which reset() puts back.
+    private final List<Collectible> pickedUp = new ArrayList<>();
+    private int pickupCount;
+    private final WorldCommandQueue worldCommands = new WorldCommandQueue();
+    private boolean deferSensorBodies;
+    private final BodyDef sensorBodyDef = new BodyDef();
+    private final CircleShape sensorShape = new CircleShape();
+    private final FixtureDef sensorFixtureDef = new FixtureDef();
+
+    private final CarPose previousPose = new CarPose();
+    private final CarPose currentPose = new CarPose();
+
+    private float upsideDownTimer = 0.0f;
+    private long tickCount = 0;
+
+    // null steps the world once per tick with the fixed iteration counts.
+    private AdaptiveStepper stepper = AdaptiveStepper.fromSystemProperty();
+    private final Profile stepProfile = new Profile();
+
+    private FrameProfiler profiler;
+    private boolean verbose = true;
+
+    public GameSession(LevelInfo level) {
+        this(level, PhysicsConstants.DEFAULT_PHYSICS_HZ);
+    }
+
+    public GameSession(LevelInfo level, int physicsHz) {
+        this(level, physicsHz, PickupMode.fromSystemProperty());
+    }
+
+    public GameSession(LevelInfo level, int physicsHz, PickupMode pickupMode) {
+        this(level, physicsHz, pickupMode, null);
+    }
+
+    /**
+     * @param asset precomputed terrain and collectibles to run on, e.g. one {@link LevelAsset#generate} shared by
+     *              many sessions; {@code null} opens the level's asset file or generates the level
+     */
+    public GameSession(LevelInfo level, int physicsHz, PickupMode pickupMode, LevelAsset asset) {
+        if (physicsHz <= 0) {
+            throw new IllegalArgumentException("physicsHz must be positive: " + physicsHz);
+        }
+        this.level = level;
+        this.physicsHz = physicsHz;
+        this.timeStep = 1.0f / physicsHz;
+        this.pickupMode = pickupMode;
+        this.collectibles = new CollectibleIndex();
+        setup(asset);
+    }
+
+    private void setup(LevelAsset asset) {
+        broadPhase = new StableBroadPhase(StreamingTerrain.PROXY_IDS);
+        world = new World(GRAVITY, new DefaultWorldPool(World.WORLD_POOL_SIZE, World.WORLD_POOL_CONTAINER_SIZE),
+                broadPhase);
+        world.setContactListener(new MyContactListener(this));
+
+        float initialCarX = (float) (LOGICAL_WIDTH * level.initialCarXFactor / PIXELS_PER_METER);
+
+        if (asset == null) {
+            asset = LevelAsset.open(level);
+        }
+        HeightSource heights;
+        if (asset != null) {
+            heights = asset;
+            collectibleSource = asset;
+        } else {
+            heights = new TerrainGenerator(level, StreamingTerrain.CHUNK_SAMPLES);
+            collectibleSource = createCollectibleGenerator(level, this::getTerrainYInterpolatedMeters);
+        }
+
+        sensorBodyDef.type = BodyType.STATIC;
+        sensorShape.setRadius(Collectible.RADIUS_METERS);
+        sensorFixtureDef.shape = sensorShape;
+        sensorFixtureDef.isSensor = true;
+        sensorFixtureDef.filter.categoryBits = PhysicsConstants.CATEGORY_COLLECTIBLE;
+        sensorFixtureDef.filter.maskBits = PhysicsConstants.MASK_COLLECTIBLE;
+
+        terrain = new StreamingTerrain(world, broadPhase, heights, this);
+        spawnRun(initialCarX);
+    }
+
+    /**
+     * Streams the terrain in around the start and creates the collectibles' sensor bodies in x order and the car
+     * last. A new session and {@link #reset()} both go through here, so the broadphase ids, and with them the
+     * order JBox2D solves contacts in, come out the same.
+     */
+    private void spawnRun(float initialCarX) {
+        deferSensorBodies = true;
+        streamTerrain(initialCarX);
+        deferSensorBodies = false;
+        if (pickupMode == PickupMode.SENSOR) {
+            for (int i = 0; i < collectibles.size(); i++) {
+                createSensorBody(collectibles.get(i));
+            }
+        }
+        spawnCar(initialCarX);
+    }
+
+    private void spawnCar(float initialCarX) {
+        float frontWheelX_meters = initialCarX + Car.CHASSIS_FRONT_WHEEL_OFFSET_X;
+        float rearWheelX_meters = initialCarX - Car.CHASSIS_REAR_WHEEL_OFFSET_X;
+
+        float frontWheelTerrainY_meters = getTerrainYInterpolatedMeters(frontWheelX_meters);
+        float rearWheelTerrainY_meters = getTerrainYInterpolatedMeters(rearWheelX_meters);
+
+        float highestTerrainY_meters = Math.max(frontWheelTerrainY_meters, rearWheelTerrainY_meters);
+
+        float initialCarY = highestTerrainY_meters
+                + WHEEL_RADIUS
+                + (Car.CHASSIS_HEIGHT / 2)
+                + 0.1f;
+
+        car = new Car(world, initialCarX, initialCarY);
+        currentPose.capture(car);
+        previousPose.set(currentPose);
+
+        upsideDownTimer = 0.0f;
+        tickCount = 0;
+    }
+
+    /**
+     * Starts the run over on the same level for "Try Again": the world, the ground body and the terrain stay, the
+     * terrain streams back to the start, picked-up collectibles are put back and only the car and the collectibles'
+     * sensor bodies are built anew. Everything else in the world is static terrain whose broadphase ids are fixed
+     * per chunk slot, so the rerun is bit-identical to a new session with the same inputs.
+     */
+    public void reset() {
+        float initialCarX = (float) (LOGICAL_WIDTH * level.initialCarXFactor / PIXELS_PER_METER);
+
+        car.destroy(world);
+        for (int i = 0; i < collectibles.size(); i++) {
+            Collectible collectible = collectibles.get(i);
+            if (collectible != null) destroySensorBody(collectible);
+        }
+        for (Collectible collectible : pickedUp) {
+            destroySensorBody(collectible);
+            collectibles.add(collectible);
+        }
+        collectibles.compact();
+        pickedUp.clear();
+        collectedSlots.clear();
+        pickupCount = 0;
+
+        spawnRun(initialCarX);
+    }
+
+    public static CollectibleGenerator createCollectibleGenerator(LevelInfo level, CollectibleGenerator.HeightLookup terrainHeight) {
+        float startXOffsetMeters = (float) (LOGICAL_WIDTH * level.initialCarXFactor / PIXELS_PER_METER + 5.0f);
+        float endXOffsetMeters = level.isEndless() ? Float.POSITIVE_INFINITY
+                : (float) (level.lengthPixels / PIXELS_PER_METER - (LOGICAL_WIDTH / 4.0 / PIXELS_PER_METER));
+        return new CollectibleGenerator(level.seed + 1, startXOffsetMeters, endXOffsetMeters, terrainHeight);
+    }
+
+    private void streamTerrain(float carXMeters) {
+        double cameraX = getCameraOffsetX(carXMeters);
+        terrain.update(cameraX / PIXELS_PER_METER, (cameraX + LOGICAL_WIDTH) / PIXELS_PER_METER);
+    }
+
+    @Override
+    public void chunkLoaded(int chunkIndex, float startXMeters, float endXMeters) {
+        collectibleSource.spawnInRange(startXMeters, endXMeters, (slot, x, collectibleY) -> {
+            Collectible collectible = new Collectible(null, Collectible.Type.NITRO_RECHARGE);
+            collectible.slot = slot;
+            collectible.chunkIndex = chunkIndex;
+            collectible.x = x;
+            collectible.y = collectibleY;
+
+            // A chunk driven back into keeps what was already collected; reset() puts those back like the others.
+            if (collectedSlots.get(slot)) {
+                pickedUp.add(collectible);
+                return;
+            }
+            collectibles.add(collectible);
+            if (pickupMode == PickupMode.SENSOR && !deferSensorBodies) {
+                createSensorBody(collectible);
+            }
+        });
+    }
+
+    private void createSensorBody(Collectible collectible) {
+        sensorBodyDef.position.set(collectible.x, collectible.y);
+        collectible.body = world.createBody(sensorBodyDef);
+        collectible.body.createFixture(sensorFixtureDef).setUserData(collectible);
+    }
+
+    private void destroySensorBody(Collectible collectible) {
+        if (collectible.body == null) return;
+        world.destroyBody(collectible.body);
+        collectible.body = null;
+    }
+
+    @Override
+    public void chunkUnloaded(int chunkIndex) {
+        collectibles.removeChunk(chunkIndex, collectible -> {
+            if (collectible.body != null) world.destroyBody(collectible.body);
+        });
+        for (int i = pickedUp.size() - 1; i >= 0; i--) {
+            Collectible collectible = pickedUp.get(i);
+            if (collectible.chunkIndex != chunkIndex) continue;
+            if (collectible.body != null) world.destroyBody(collectible.body);
+            pickedUp.remove(i);
+        }
+    }
+
+    public static float toJBox2dY(double swingY) {
+        return (float) ((LOGICAL_HEIGHT - swingY) / PIXELS_PER_METER);
+    }
+
+    public static double toSwingY(float jbox2dY) {
+        return LOGICAL_HEIGHT - jbox2dY * (double) PIXELS_PER_METER;
+    }
+
+    public float getTerrainYInterpolatedMeters(float xMeters) {
+        return terrain.getHeightInterpolatedMeters(xMeters);
+    }
+
+    public double getTerrainYInterpolatedPixels(double px) {
+        return toSwingY(terrain.getHeightInterpolatedMeters((float) (px / PIXELS_PER_METER)));
+    }
+
+    public TickResult tick(int input) {
+        long start = profiler != null ? System.nanoTime() : 0;
+
+        car.forward = DriveInput.isForward(input);
+        car.reverse = DriveInput.isReverse(input);
+        car.nitroInput = DriveInput.isNitro(input);
+        car.update(timeStep);
+        if (profiler != null) start = recordPhase(FrameProfiler.Phase.CAR_UPDATE, start);
+
+        previousPose.set(currentPose);
+        if (stepper == null) {
+            world.step(timeStep, PhysicsConstants.VELOCITY_ITERATIONS, PhysicsConstants.POSITION_ITERATIONS);
+            worldCommands.flush(world);
+            if (profiler != null) {
+                start = recordPhase(FrameProfiler.Phase.WORLD_STEP, start);
+                profiler.recordWorldProfile(world.getProfile());
+            }
+        } else {
+            stepAdaptive();
+            if (profiler != null) {
+                start = recordPhase(FrameProfiler.Phase.WORLD_STEP, start);
+                profiler.recordWorldProfile(stepProfile);
+            }
+        }
+        currentPose.capture(car);
+        tickCount++;
+
+        TickResult result = applyRules();
+        if (profiler != null) recordPhase(FrameProfiler.Phase.RULES, start);
+        return result;
+    }
+
+    private void stepAdaptive() {
+        stepper.plan(car, timeStep);
+        car.frontWheelBody.setBullet(stepper.isContinuous());
+        car.rearWheelBody.setBullet(stepper.isContinuous());
+        float subStep = timeStep / stepper.getSubSteps();
+
+        stepProfile.collide = 0;
+        stepProfile.solve = 0;
+        stepProfile.solveTOI = 0;
+        stepProfile.broadphase = 0;
+        for (int i = 0; i < stepper.getSubSteps(); i++) {
+            world.step(subStep, stepper.getVelocityIterations(), stepper.getPositionIterations());
+            worldCommands.flush(world);
+
+            Profile profile = world.getProfile();
+            stepProfile.collide += profile.collide;
+            stepProfile.solve += profile.solve;
+            stepProfile.solveTOI += profile.solveTOI;
+            stepProfile.broadphase += profile.broadphase;
+        }
+    }
+
+    private long recordPhase(FrameProfiler.Phase phase, long start) {
+        long now = System.nanoTime();
+        profiler.record(phase, now - start);
+        return now;
+    }
+
+    private TickResult applyRules() {
+        if (pickupMode == PickupMode.ANALYTIC) {
+            pickUpOverlappingCollectibles();
+        }
+
+        streamTerrain(car.getX());
+
+        if (car.isUpsideDown()) {
+            upsideDownTimer += timeStep;
+            if (upsideDownTimer >= PhysicsConstants.UPSIDE_DOWN_GAME_OVER_TIME) {
+                return TickResult.UPSIDE_DOWN;
+            }
+        } else {
+            upsideDownTimer = 0.0f;
+        }
+
+        if (car.getY() < toJBox2dY(LOGICAL_HEIGHT + GAME_OVER_FALL_THRESHOLD_Y_PIXELS)) {
+            return TickResult.FELL;
+        }
+
+        if (!level.isEndless() && car.getX() * PIXELS_PER_METER > level.lengthPixels - LOGICAL_WIDTH / 4.0) {
+            return TickResult.FINISHED;
+        }
+        return TickResult.RUNNING;
+    }
+
+    /**
+     * Applies a pickup. Safe to call from contact callbacks: the collectible's sensor body is only switched off
+     * through the {@link WorldCommandQueue} after the step.
+     */
+    public void handleCollectibleCollision(Car car, Collectible collectible) {
+        if (collectibles.contains(collectible)) {
+            if (verbose) System.out.println("Collectible gesammelt: " + collectible.type);
+            switch (collectible.type) {
+                case NITRO_RECHARGE:
+                    car.addNitroFuel(PhysicsConstants.NITRO_RECHARGE_AMOUNT);
+                    break;
+            }
+            pickUp(collectible);
+        }
+    }
+
+    private void pickUp(Collectible collectible) {
+        if (collectible.body != null) worldCommands.setActive(collectible.body, false);
+        collectibles.remove(collectible);
+        collectedSlots.set(collectible.slot);
+        pickedUp.add(collectible);
+        pickupCount++;
+    }
+
+    private void pickUpOverlappingCollectibles() {
+        float carX = car.getX();
+        float carY = car.getY();
+        float cos = (float) Math.cos(car.getAngle());
+        float sin = (float) Math.sin(car.getAngle());
+
+        for (int i = collectibles.lowerBound(carX - CHASSIS_REACH);
+             i < collectibles.size() && collectibles.xAt(i) <= carX + CHASSIS_REACH; i++) {
+            Collectible collectible = collectibles.get(i);
+            if (collectible == null) continue;
+
+            // Circle against the chassis box, in the chassis frame.
+            float dx = collectibles.xAt(i) - carX;
+            float dy = collectibles.yAt(i) - carY;
+            float localX = dx * cos + dy * sin;
+            float localY = -dx * sin + dy * cos;
+            float nearestX = Math.max(-CHASSIS_HALF_WIDTH, Math.min(CHASSIS_HALF_WIDTH, localX));
+            float nearestY = Math.max(-CHASSIS_HALF_HEIGHT, Math.min(CHASSIS_HALF_HEIGHT, localY));
+            float ex = localX - nearestX;
+            float ey = localY - nearestY;
+            float radius = collectibles.radiusAt(i);
+            if (ex * ex + ey * ey <= radius * radius) {
+                handleCollectibleCollision(car, collectible);
+            }
+        }
+    }
+
+    public SessionKeyframe captureKeyframe() {
+        SessionKeyframe keyframe = new SessionKeyframe();
+        keyframe.tick = tickCount;
+        SessionKeyframe.captureBody(car.chassisBody, keyframe.bodies, 0);
+        SessionKeyframe.captureBody(car.frontWheelBody, keyframe.bodies, 1);
+        SessionKeyframe.captureBody(car.rearWheelBody, keyframe.bodies, 2);
+        keyframe.nitroFuel = car.currentNitroFuel;
+        keyframe.nitroActive = car.isNitroActive;
+        keyframe.nitroCooldown = car.nitroCooldownTimer;
+        keyframe.upsideDownTimer = upsideDownTimer;
+        keyframe.collectedSlots = collectedSlots.toLongArray();
+        return keyframe;
+    }
+
+    /**
+     * Puts the car and the run state back to {@code keyframe}. Body states are restored exactly, but JBox2D's
+     * contact and joint warm-start impulses are not part of a keyframe, so stepping on from a restored session
+     * stays close to the original run without being bit-identical to it.
+     */
+    public void restoreKeyframe(SessionKeyframe keyframe) {
+        SessionKeyframe.restoreBody(car.chassisBody, keyframe.bodies, 0);
+        SessionKeyframe.restoreBody(car.frontWheelBody, keyframe.bodies, 1);
+        SessionKeyframe.restoreBody(car.rearWheelBody, keyframe.bodies, 2);
+        car.currentNitroFuel = keyframe.nitroFuel;
+        car.isNitroActive = keyframe.nitroActive;
+        car.nitroCooldownTimer = keyframe.nitroCooldown;
+        upsideDownTimer = keyframe.upsideDownTimer;
+        tickCount = keyframe.tick;
+
+        collectedSlots.clear();
+        collectedSlots.or(BitSet.valueOf(keyframe.collectedSlots));
+        for (int i = 0; i < collectibles.size(); i++) {
+            Collectible collectible = collectibles.get(i);
+            if (collectible != null && collectedSlots.get(collectible.slot)) {
+                pickUp(collectible);
+            }
+        }
+        pickupCount = collectedSlots.cardinality();
+        worldCommands.flush(world);
+
+        streamTerrain(car.getX());
+        currentPose.capture(car);
+        previousPose.set(currentPose);
+    }
+
+    public void interpolatePose(float alpha, CarPose out) {
+        out.interpolate(previousPose, currentPose, alpha);
+    }
+
+    public void copyPoses(CarPose previous, CarPose current) {
+        previous.set(previousPose);
+        current.set(currentPose);
+    }
+
+    public double getCameraOffsetX(double carXMeters) {
+        double carXPixels = carXMeters * PIXELS_PER_METER;
+        double targetCameraX = carXPixels - LOGICAL_WIDTH / 3.0;
+
+        if (targetCameraX < 0) {
+            return 0.0;
+        } else if (!level.isEndless() && targetCameraX > level.lengthPixels - LOGICAL_WIDTH) {
+            return level.lengthPixels - LOGICAL_WIDTH;
+        }
+        return targetCameraX;
+    }
+
+    /**
+     * Times the phases of every following tick into {@code profiler}; {@code null} turns timing off.
+     */
+    public void setProfiler(FrameProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    /**
+     * Replaces the stepping schedule, e.g. with the one a replay was recorded with; {@code null} steps once per
+     * tick with the fixed iteration counts. Only allowed before the first tick.
+     */
+    public void setStepper(AdaptiveStepper stepper) {
+        if (tickCount != 0) {
+            throw new IllegalStateException("The stepping schedule must be chosen before the first tick");
+        }
+        this.stepper = stepper;
+    }
+
+    public AdaptiveStepper getStepper() {
+        return stepper;
+    }
+
+    /**
+     * Whether pickups are logged to the console; bulk headless runs turn this off.
+     */
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    public PickupMode getPickupMode() {
+        return pickupMode;
+    }
+
+    public LevelInfo getLevel() {
+        return level;
+    }
+
+    public int getPhysicsHz() {
+        return physicsHz;
+    }
+
+    public float getTimeStep() {
+        return timeStep;
+    }
+
+    public World getWorld() {
+        return world;
+    }
+
+    public Car getCar() {
+        return car;
+    }
+
+    public StreamingTerrain getTerrain() {
+        return terrain;
+    }
+
+    /**
+     * Queue for world changes requested from contact callbacks; it is flushed right after every step.
+     */
+    public WorldCommandQueue getWorldCommands() {
+        return worldCommands;
+    }
+
+    public CollectibleIndex getCollectibles() {
+        return collectibles;
+    }
+
+    public float getUpsideDownTimer() {
+        return upsideDownTimer;
+    }
+
+    /** Collectibles picked up so far in this run. */
+    public int getPickupCount() {
+        return pickupCount;
+    }
+
+    public long getTickCount() {
+        return tickCount;
+    }
+}
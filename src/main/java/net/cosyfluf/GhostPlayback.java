@@ -0,0 +1,107 @@
+package net.cosyfluf;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Sequential decoder over a {@link GhostTrack}. Only the two samples around the current time are held, as
+ * fixed-point ints; moving forward decodes the samples in between, moving backwards restarts from the first one.
+ */
+public class GhostPlayback {
+
+    private final GhostTrack track;
+    private final ByteBuffer samples;
+    private final double samplesPerSecond;
+
+    private final int[] value = new int[GhostTrack.CHANNELS];
+    private final int[] previous = new int[GhostTrack.CHANNELS];
+    private final int[] delta = new int[GhostTrack.CHANNELS];
+    private int decoded;
+
+    GhostPlayback(GhostTrack track) {
+        this.track = track;
+        this.samples = track.samples();
+        this.samplesPerSecond = (double) track.physicsHz / track.sampleInterval;
+    }
+
+    public GhostTrack getTrack() {
+        return track;
+    }
+
+    public double getDurationSeconds() {
+        return (double) track.tickCount / track.physicsHz;
+    }
+
+    /**
+     * Writes the pose {@code seconds} into the run to {@code out}, interpolated between the neighbouring samples.
+     * Returns false, leaving {@code out} untouched, once the recorded run has ended.
+     */
+    public boolean poseAt(double seconds, CarPose out) {
+        if (seconds > getDurationSeconds()) return false;
+
+        int lastSample = track.sampleCount - 1;
+        double position = Math.max(0.0, Math.min(lastSample, seconds * samplesPerSecond));
+        int lower = (int) position;
+        int upper = Math.min(lower + 1, lastSample);
+
+        if (upper < decoded - 1) {
+            reset();
+        }
+        while (decoded <= upper) {
+            decodeNext();
+        }
+
+        float frac = upper == lower ? 1.0f : (float) (position - lower);
+        out.chassisX = position(0, frac);
+        out.chassisY = position(1, frac);
+        out.chassisAngle = angle(2, frac);
+        out.frontWheelX = position(3, frac);
+        out.frontWheelY = position(4, frac);
+        out.frontWheelAngle = angle(5, frac);
+        out.rearWheelX = position(6, frac);
+        out.rearWheelY = position(7, frac);
+        out.rearWheelAngle = angle(8, frac);
+        return true;
+    }
+
+    private float position(int channel, float frac) {
+        return interpolate(channel, frac) / GhostTrack.POSITION_SCALE;
+    }
+
+    private float angle(int channel, float frac) {
+        return interpolate(channel, frac) / GhostTrack.ANGLE_SCALE;
+    }
+
+    private float interpolate(int channel, float frac) {
+        float from = decoded > 1 ? previous[channel] : value[channel];
+        return from + (value[channel] - from) * frac;
+    }
+
+    private void reset() {
+        samples.position(0);
+        for (int c = 0; c < GhostTrack.CHANNELS; c++) {
+            value[c] = 0;
+            previous[c] = 0;
+            delta[c] = 0;
+        }
+        decoded = 0;
+    }
+
+    private void decodeNext() {
+        for (int c = 0; c < GhostTrack.CHANNELS; c++) {
+            int raw = readVarInt();
+            delta[c] += (raw >>> 1) ^ -(raw & 1);
+            previous[c] = value[c];
+            value[c] += delta[c];
+        }
+        decoded++;
+    }
+
+    private int readVarInt() {
+        int result = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = samples.get();
+            result |= (b & 0x7F) << shift;
+            if (b >= 0) return result;
+        }
+    }
+}
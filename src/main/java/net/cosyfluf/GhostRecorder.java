@@ -0,0 +1,160 @@
+package net.cosyfluf;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Samples the car pose of a running {@link GameSession} into the {@link GhostTrack} encoding. {@link #record()}
+ * is called after every tick and only encodes on sample ticks, straight into a growing byte array.
+ */
+public class GhostRecorder {
+
+    public static final int SAMPLES_PER_SECOND = 15;
+
+    private final GameSession session;
+    private final int sampleInterval;
+    private final CarPose pose = new CarPose();
+
+    private final int[] value = new int[GhostTrack.CHANNELS];
+    private final int[] delta = new int[GhostTrack.CHANNELS];
+    private byte[] bytes = new byte[4096];
+    private int size;
+    private int sampleCount;
+
+    public GhostRecorder(GameSession session) {
+        this.session = session;
+        this.sampleInterval = Math.max(1, Math.round((float) session.getPhysicsHz() / SAMPLES_PER_SECOND));
+        record();
+    }
+
+    /**
+     * Starts over after {@link GameSession#reset()}, keeping the buffer for the next run.
+     */
+    public void rewind() {
+        Arrays.fill(value, 0);
+        Arrays.fill(delta, 0);
+        size = 0;
+        sampleCount = 0;
+        record();
+    }
+
+    public void record() {
+        if (session.getTickCount() % sampleInterval != 0) return;
+
+        pose.capture(session.getCar());
+        encode(0, pose.chassisX, GhostTrack.POSITION_SCALE);
+        encode(1, pose.chassisY, GhostTrack.POSITION_SCALE);
+        encode(2, pose.chassisAngle, GhostTrack.ANGLE_SCALE);
+        encode(3, pose.frontWheelX, GhostTrack.POSITION_SCALE);
+        encode(4, pose.frontWheelY, GhostTrack.POSITION_SCALE);
+        encode(5, pose.frontWheelAngle, GhostTrack.ANGLE_SCALE);
+        encode(6, pose.rearWheelX, GhostTrack.POSITION_SCALE);
+        encode(7, pose.rearWheelY, GhostTrack.POSITION_SCALE);
+        encode(8, pose.rearWheelAngle, GhostTrack.ANGLE_SCALE);
+        sampleCount++;
+    }
+
+    private void encode(int channel, float v, float scale) {
+        int quantized = Math.round(v * scale);
+        int newDelta = quantized - value[channel];
+        int secondDifference = newDelta - delta[channel];
+        value[channel] = quantized;
+        delta[channel] = newDelta;
+
+        int zigZag = (secondDifference << 1) ^ (secondDifference >> 31);
+        if (size + 5 > bytes.length) {
+            bytes = Arrays.copyOf(bytes, bytes.length * 2);
+        }
+        while ((zigZag & ~0x7F) != 0) {
+            bytes[size++] = (byte) (zigZag & 0x7F | 0x80);
+            zigZag >>>= 7;
+        }
+        bytes[size++] = (byte) zigZag;
+    }
+
+    public int getEncodedBytes() {
+        return size;
+    }
+
+    public void write(Path file, String playerName, boolean finished) throws IOException {
+        finishRun(playerName, finished).write(file);
+    }
+
+    /**
+     * Stores the run as the player's ghost for this level unless their existing ghost is at least as good.
+     * Returns whether it was written.
+     */
+    public boolean saveIfBest(String playerName, boolean finished) throws IOException {
+        return finishRun(playerName, finished).saveIfBest();
+    }
+
+    /**
+     * Copies the run recorded so far, so it can be written on another thread while this recorder goes on.
+     */
+    public FinishedRun finishRun(String playerName, boolean finished) {
+        return new FinishedRun(session.getLevel(), playerName, session.getPhysicsHz(), sampleInterval, sampleCount,
+                (int) session.getTickCount(), session.getCar().getX(), finished, Arrays.copyOf(bytes, size));
+    }
+
+    /** A recorded run detached from its session and recorder. */
+    public static class FinishedRun {
+        public final LevelInfo level;
+        public final String playerName;
+        public final int physicsHz;
+        public final int sampleInterval;
+        public final int sampleCount;
+        public final int tickCount;
+        public final float distanceMeters;
+        public final boolean finished;
+        private final byte[] samples;
+
+        FinishedRun(LevelInfo level, String playerName, int physicsHz, int sampleInterval, int sampleCount,
+                    int tickCount, float distanceMeters, boolean finished, byte[] samples) {
+            this.level = level;
+            this.playerName = playerName;
+            this.physicsHz = physicsHz;
+            this.sampleInterval = sampleInterval;
+            this.sampleCount = sampleCount;
+            this.tickCount = tickCount;
+            this.distanceMeters = distanceMeters;
+            this.finished = finished;
+            this.samples = samples;
+        }
+
+        public int getEncodedBytes() {
+            return samples.length;
+        }
+
+        public void write(Path file) throws IOException {
+            GhostTrack.write(file, level, playerName, physicsHz, sampleInterval, sampleCount, tickCount,
+                    distanceMeters, finished, samples, samples.length);
+        }
+
+        /**
+         * Stores the run as the player's ghost for this level unless their existing ghost is at least as good.
+         * Returns whether it was written.
+         */
+        public boolean saveIfBest() throws IOException {
+            Path directory = GhostTrack.ghostDirectory();
+            Files.createDirectories(directory);
+            Path file = directory.resolve(GhostTrack.fileName(level, playerName));
+
+            if (Files.isRegularFile(file)) {
+                try {
+                    GhostTrack existing = GhostTrack.load(file);
+                    if (!GhostTrack.isBetter(finished, tickCount, distanceMeters,
+                            existing.finished, existing.tickCount, existing.distanceMeters)) {
+                        return false;
+                    }
+                } catch (IOException e) {
+                    System.out.println("Alte Ghost-Datei " + file + " ist ungültig und wird ersetzt: "
+                            + e.getMessage());
+                }
+            }
+            write(file);
+            return true;
+        }
+    }
+}
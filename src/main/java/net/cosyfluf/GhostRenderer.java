@@ -0,0 +1,46 @@
+package net.cosyfluf;
+
+import java.awt.AlphaComposite;
+import java.awt.Composite;
+import java.awt.Graphics2D;
+import java.util.List;
+
+import static net.cosyfluf.PhysicsConstants.PIXELS_PER_METER;
+
+/**
+ * Draws ghost cars translucently through the live car's {@link CarRenderer}, so all cars share one sprite cache.
+ * Ghosts outside the visible x range are only decoded, not drawn.
+ */
+public class GhostRenderer {
+
+    private static final Composite GHOST_COMPOSITE = AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.4f);
+    private static final double CULL_MARGIN_PIXELS = CarRenderer.BODY_EXTENT + CarRenderer.WHEEL_EXTENT;
+
+    private final CarRenderer carRenderer;
+    private final CarPose pose = new CarPose();
+
+    public GhostRenderer(CarRenderer carRenderer) {
+        this.carRenderer = carRenderer;
+    }
+
+    /**
+     * {@code g2d} must already be translated by the camera offset, like for the live car.
+     */
+    public void draw(Graphics2D g2d, List<GhostPlayback> ghosts, double seconds, double cameraOffsetX,
+                     int screenHeight, double scaleX, double scaleY) {
+        if (ghosts.isEmpty()) return;
+
+        Composite composite = g2d.getComposite();
+        g2d.setComposite(GHOST_COMPOSITE);
+        for (int i = 0; i < ghosts.size(); i++) {
+            if (!ghosts.get(i).poseAt(seconds, pose)) continue;
+
+            double x = pose.chassisX * PIXELS_PER_METER;
+            if (x < cameraOffsetX - CULL_MARGIN_PIXELS || x > cameraOffsetX + GameSession.LOGICAL_WIDTH + CULL_MARGIN_PIXELS) {
+                continue;
+            }
+            carRenderer.draw(g2d, pose, false, screenHeight, scaleX, scaleY);
+        }
+        g2d.setComposite(composite);
+    }
+}
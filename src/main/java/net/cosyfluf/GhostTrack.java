@@ -0,0 +1,196 @@
+package net.cosyfluf;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * A stored pose track of one run: chassis and wheel x, y and angle every {@code sampleInterval} ticks. Values are
+ * quantized to fixed point and stored as zig-zag varints of their second difference, which stays close to zero
+ * while the car moves smoothly. The file is read whole into the heap and only ever decoded sequentially by a
+ * {@link GhostPlayback}. Tracks are a few kilobytes, and unlike a mapping a heap copy does not keep the file
+ * locked on Windows, where a new best run replaces it while its ghost is still racing. Layout (big endian):
+ *
+ * <pre>
+ * int magic, int version, long parametersHash, int physicsHz, int sampleInterval, int sampleCount,
+ * int tickCount, float distanceMeters, int finished, int nameBytes, int payloadBytes, long crc32
+ * byte[nameBytes] player name (UTF-8)
+ * byte[payloadBytes] samples x 9 varints
+ * </pre>
+ *
+ * The checksum covers everything after the header.
+ */
+public class GhostTrack {
+
+    public static final int MAGIC = 0x48434748;
+    public static final int VERSION = 1;
+    public static final String FILE_SUFFIX = ".hcghost";
+    public static final String GHOST_DIR_PROPERTY = "hillclimb.ghostDir";
+    public static final int DEFAULT_MAX_GHOSTS = 50;
+
+    public static final int CHANNELS = 9;
+    public static final float POSITION_SCALE = 256.0f;
+    public static final float ANGLE_SCALE = 1024.0f;
+
+    private static final int HEADER_BYTES = 56;
+
+    public final long parametersHash;
+    public final String playerName;
+    public final int physicsHz;
+    public final int sampleInterval;
+    public final int sampleCount;
+    public final int tickCount;
+    public final float distanceMeters;
+    public final boolean finished;
+
+    private final ByteBuffer payload;
+
+    private GhostTrack(long parametersHash, String playerName, int physicsHz, int sampleInterval, int sampleCount,
+                       int tickCount, float distanceMeters, boolean finished, ByteBuffer payload) {
+        this.parametersHash = parametersHash;
+        this.playerName = playerName;
+        this.physicsHz = physicsHz;
+        this.sampleInterval = sampleInterval;
+        this.sampleCount = sampleCount;
+        this.tickCount = tickCount;
+        this.distanceMeters = distanceMeters;
+        this.finished = finished;
+        this.payload = payload;
+    }
+
+    public static Path ghostDirectory() {
+        return Paths.get(System.getProperty(GHOST_DIR_PROPERTY, "ghosts"));
+    }
+
+    public static String playerName() {
+        return System.getProperty("hillclimb.playerName", System.getProperty("user.name", "player"));
+    }
+
+    private static String filePrefix(LevelInfo level) {
+        return String.format("ghost-%016x-", level.parametersHash());
+    }
+
+    public static String fileName(LevelInfo level, String playerName) {
+        return filePrefix(level) + playerName.replaceAll("[^A-Za-z0-9_.-]", "_") + FILE_SUFFIX;
+    }
+
+    /**
+     * Loads every ghost of {@code level} in {@link #ghostDirectory()} (one best run per player file) and returns the
+     * {@code max} best, best first. Unreadable files are skipped.
+     */
+    public static List<GhostTrack> loadBest(LevelInfo level, int max) {
+        List<GhostTrack> tracks = new ArrayList<>();
+        Path directory = ghostDirectory();
+        if (max <= 0 || !Files.isDirectory(directory)) return tracks;
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, filePrefix(level) + "*" + FILE_SUFFIX)) {
+            for (Path file : files) {
+                try {
+                    GhostTrack track = load(file);
+                    if (track.parametersHash == level.parametersHash()) tracks.add(track);
+                } catch (IOException | RuntimeException e) {
+                    System.out.println("Ghost-Datei " + file + " wird übersprungen: " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("Ghosts konnten nicht gelesen werden: " + e.getMessage());
+        }
+
+        tracks.sort((a, b) -> a.isBetterThan(b) ? -1 : b.isBetterThan(a) ? 1 : 0);
+        return tracks.size() > max ? new ArrayList<>(tracks.subList(0, max)) : tracks;
+    }
+
+    public static GhostTrack load(Path file) throws IOException {
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (data.capacity() < HEADER_BYTES) throw new IOException("Datei zu kurz");
+
+        if (data.getInt(0) != MAGIC) throw new IOException("Keine Ghost-Datei");
+        int version = data.getInt(4);
+        if (version != VERSION) throw new IOException("Version " + version + " wird nicht unterstützt");
+
+        int physicsHz = data.getInt(16);
+        int sampleInterval = data.getInt(20);
+        int sampleCount = data.getInt(24);
+        int nameBytes = data.getInt(40);
+        int payloadBytes = data.getInt(44);
+        if (physicsHz <= 0 || sampleInterval <= 0 || sampleCount <= 0 || nameBytes < 0 || payloadBytes < 0
+                || data.capacity() != (long) HEADER_BYTES + nameBytes + payloadBytes) {
+            throw new IOException("Unerwartete Dateigröße");
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(data.slice(HEADER_BYTES, nameBytes + payloadBytes));
+        if (crc.getValue() != data.getLong(48)) throw new IOException("Prüfsumme stimmt nicht");
+
+        byte[] name = new byte[nameBytes];
+        data.get(HEADER_BYTES, name);
+        return new GhostTrack(data.getLong(8), new String(name, StandardCharsets.UTF_8), physicsHz, sampleInterval,
+                sampleCount, data.getInt(28), data.getFloat(32), data.getInt(36) != 0,
+                data.slice(HEADER_BYTES + nameBytes, payloadBytes));
+    }
+
+    static void write(Path file, LevelInfo level, String playerName, int physicsHz, int sampleInterval,
+                      int sampleCount, int tickCount, float distanceMeters, boolean finished,
+                      byte[] samples, int sampleBytes) throws IOException {
+        byte[] name = playerName.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + name.length + sampleBytes);
+        buffer.position(HEADER_BYTES);
+        buffer.put(name).put(samples, 0, sampleBytes);
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), HEADER_BYTES, name.length + sampleBytes);
+        buffer.putInt(0, MAGIC)
+                .putInt(4, VERSION)
+                .putLong(8, level.parametersHash())
+                .putInt(16, physicsHz)
+                .putInt(20, sampleInterval)
+                .putInt(24, sampleCount)
+                .putInt(28, tickCount)
+                .putFloat(32, distanceMeters)
+                .putInt(36, finished ? 1 : 0)
+                .putInt(40, name.length)
+                .putInt(44, sampleBytes)
+                .putLong(48, crc.getValue());
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(temp, buffer.array());
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Finished runs rank by time, unfinished ones behind them by distance.
+     */
+    public boolean isBetterThan(GhostTrack other) {
+        return isBetter(finished, tickCount, distanceMeters, other.finished, other.tickCount, other.distanceMeters);
+    }
+
+    static boolean isBetter(boolean finished, int tickCount, float distanceMeters,
+                            boolean otherFinished, int otherTickCount, float otherDistanceMeters) {
+        if (finished != otherFinished) return finished;
+        if (finished) return tickCount < otherTickCount;
+        return distanceMeters > otherDistanceMeters;
+    }
+
+    public int getPayloadBytes() {
+        return payload.capacity();
+    }
+
+    /**
+     * A fresh read-only view of the encoded samples, positioned at the first one.
+     */
+    ByteBuffer samples() {
+        return payload.duplicate();
+    }
+
+    public GhostPlayback newPlayback() {
+        return new GhostPlayback(this);
+    }
+}
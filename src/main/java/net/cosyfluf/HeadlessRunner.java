@@ -0,0 +1,58 @@
+package net.cosyfluf;
+
+import java.util.List;
+
+/**
+ * Runs sessions without a window, unthrottled, and reports simulation throughput.
+ * Usage: {@code HeadlessRunner [levelIndex] [runs] [maxTicksPerRun]}
+ */
+public class HeadlessRunner {
+
+    public static void main(String[] args) {
+        List<LevelInfo> levels = LevelInfo.defaultLevels();
+        int levelIndex = args.length > 0 ? Integer.parseInt(args[0]) : 0;
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int maxTicks = args.length > 2 ? Integer.parseInt(args[2]) : (int) (60 / PhysicsConstants.TIME_STEP);
+
+        LevelInfo level = levels.get(levelIndex);
+        long totalTicks = 0;
+        float bestDistance = 0.0f;
+        long degradedTicks = 0;
+        long continuousTicks = 0;
+        long[] subStepTicks = new long[AdaptiveStepper.MAX_SUB_STEPS + 1];
+
+        long start = System.nanoTime();
+        for (int run = 0; run < runs; run++) {
+            GameSession session = new GameSession(level);
+            GameSession.TickResult result = GameSession.TickResult.RUNNING;
+            while (result == GameSession.TickResult.RUNNING && session.getTickCount() < maxTicks) {
+                result = session.tick(DriveInput.FORWARD);
+            }
+            totalTicks += session.getTickCount();
+            bestDistance = Math.max(bestDistance, session.getCar().getX());
+
+            AdaptiveStepper stepper = session.getStepper();
+            if (stepper != null) {
+                degradedTicks += stepper.getDegradedTicks();
+                continuousTicks += stepper.getContinuousTicks();
+                for (int n = 1; n <= AdaptiveStepper.MAX_SUB_STEPS; n++) {
+                    subStepTicks[n] += stepper.getSubStepTicks(n);
+                }
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("Level '%s': %d runs, %d ticks in %.3f s%n", level.name, runs, totalTicks, seconds);
+        System.out.printf("%.1f runs/s, %.0f ticks/s (%.1fx real time), best distance %.1f m%n",
+                runs / seconds, totalTicks / seconds, totalTicks * PhysicsConstants.TIME_STEP / seconds, bestDistance);
+        if (Integer.getInteger(AdaptiveStepper.BUDGET_PROPERTY, AdaptiveStepper.DEFAULT_BUDGET) > 0) {
+            StringBuilder histogram = new StringBuilder();
+            for (int n = 1; n <= AdaptiveStepper.MAX_SUB_STEPS; n++) {
+                histogram.append(n == 1 ? "" : " / ").append(String.format("%.1f%%", 100.0 * subStepTicks[n] / totalTicks));
+            }
+            System.out.printf("adaptive stepping: %.2f%% of ticks degraded, %.2f%% with bullet wheels, 1-%d sub-steps: %s%n",
+                    100.0 * degradedTicks / totalTicks, 100.0 * continuousTicks / totalTicks,
+                    AdaptiveStepper.MAX_SUB_STEPS, histogram);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package net.cosyfluf;
+
+/**
+ * Supplies the final (smoothed) terrain heights of a level as JBox2D y coordinates in meters, one sample every
+ * {@link #getSpacingMeters()} along x.
+ */
+public interface HeightSource {
+
+    int getLength();
+
+    float getSpacingMeters();
+
+    void fill(int from, int to, float[] outMeters, int outOffset);
+}
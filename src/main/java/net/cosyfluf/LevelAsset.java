@@ -0,0 +1,225 @@
+package net.cosyfluf;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * A precomputed level: the final height field and collectible positions, stored in a versioned binary file that
+ * is memory-mapped on load instead of regenerated. Layout (big endian):
+ *
+ * <pre>
+ * int magic, int version, long parametersHash, long seed,
+ * int lengthPixels, int sampleCount, int collectibleCount, float spacingMeters, long crc32
+ * float[sampleCount] heights (JBox2D meters)
+ * collectibleCount x (int slot, float xMeters, float yMeters)
+ * </pre>
+ *
+ * The checksum covers everything after the header.
+ */
+public class LevelAsset implements HeightSource, CollectibleSource {
+
+    public static final int MAGIC = 0x48434C56;
+    public static final int VERSION = 2;
+    public static final String FILE_SUFFIX = ".hclevel";
+    public static final String LEVEL_DIR_PROPERTY = "hillclimb.levelDir";
+
+    private static final int HEADER_BYTES = 48;
+    private static final int COLLECTIBLE_BYTES = 12;
+
+    private final int length;
+    private final float spacing;
+    private final FloatBuffer heights;
+    private final int[] slots;
+    private final float[] xs;
+    private final float[] ys;
+
+    private LevelAsset(int length, float spacing, FloatBuffer heights, int[] slots, float[] xs, float[] ys) {
+        this.length = length;
+        this.spacing = spacing;
+        this.heights = heights;
+        this.slots = slots;
+        this.xs = xs;
+        this.ys = ys;
+    }
+
+    public static Path levelDirectory() {
+        return Paths.get(System.getProperty(LEVEL_DIR_PROPERTY, "levels"));
+    }
+
+    public static String fileName(LevelInfo level) {
+        return String.format("level-%016x%s", level.parametersHash(), FILE_SUFFIX);
+    }
+
+    /**
+     * Maps the asset for {@code level} from {@link #levelDirectory()}, or returns {@code null} when there is none
+     * (or it does not match) so the caller can fall back to generating the level.
+     */
+    public static LevelAsset open(LevelInfo level) {
+        if (level.isEndless()) return null;
+
+        Path file = levelDirectory().resolve(fileName(level));
+        if (!Files.isRegularFile(file)) return null;
+
+        try {
+            return load(file, level);
+        } catch (IOException e) {
+            System.out.println("Level-Datei " + file + " ist ungültig, Level wird generiert: " + e.getMessage());
+            return null;
+        }
+    }
+
+    public static LevelAsset load(Path file, LevelInfo level) throws IOException {
+        MappedByteBuffer map;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) throw new IOException("Datei zu kurz");
+            map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        return parse(map, level);
+    }
+
+    /**
+     * Generates {@code level} in full into memory. The result is immutable and can back any number of sessions,
+     * on any number of threads, at once.
+     */
+    public static LevelAsset generate(LevelInfo level) {
+        try {
+            return parse(encode(level).asReadOnlyBuffer(), level);
+        } catch (IOException e) {
+            throw new IllegalStateException("Freshly encoded level does not parse", e);
+        }
+    }
+
+    private static LevelAsset parse(ByteBuffer map, LevelInfo level) throws IOException {
+        if (map.getInt(0) != MAGIC) throw new IOException("Keine Level-Datei");
+        int version = map.getInt(4);
+        if (version != VERSION) throw new IOException("Version " + version + " wird nicht unterstützt");
+        if (map.getLong(8) != level.parametersHash() || map.getLong(16) != level.seed
+                || map.getInt(24) != level.lengthPixels) {
+            throw new IOException("Level-Parameter passen nicht");
+        }
+
+        int sampleCount = map.getInt(28);
+        int collectibleCount = map.getInt(32);
+        float spacing = map.getFloat(36);
+        long payloadBytes = (long) sampleCount * Float.BYTES + (long) collectibleCount * COLLECTIBLE_BYTES;
+        if (sampleCount != level.lengthPixels || collectibleCount < 0 || !(spacing > 0) || map.capacity() != HEADER_BYTES + payloadBytes) {
+            throw new IOException("Unerwartete Dateigröße");
+        }
+
+        ByteBuffer payload = map.slice(HEADER_BYTES, (int) payloadBytes);
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        if (crc.getValue() != map.getLong(40)) throw new IOException("Prüfsumme stimmt nicht");
+
+        FloatBuffer heights = payload.slice(0, sampleCount * Float.BYTES).asFloatBuffer();
+
+        int[] slots = new int[collectibleCount];
+        float[] xs = new float[collectibleCount];
+        float[] ys = new float[collectibleCount];
+        int offset = sampleCount * Float.BYTES;
+        for (int i = 0; i < collectibleCount; i++, offset += COLLECTIBLE_BYTES) {
+            slots[i] = payload.getInt(offset);
+            xs[i] = payload.getFloat(offset + 4);
+            ys[i] = payload.getFloat(offset + 8);
+        }
+        return new LevelAsset(sampleCount, spacing, heights, slots, xs, ys);
+    }
+
+    /**
+     * Generates {@code level} in full and writes it to {@code file}, replacing any existing asset atomically.
+     */
+    public static void write(Path file, LevelInfo level) throws IOException {
+        ByteBuffer buffer = encode(level);
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(temp, buffer.array());
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static ByteBuffer encode(LevelInfo level) {
+        if (level.isEndless()) throw new IllegalArgumentException("Endless levels cannot be precomputed");
+
+        int length = level.lengthPixels;
+        float[] heights = new float[length];
+        TerrainGenerator terrain = new TerrainGenerator(level, StreamingTerrain.CHUNK_SAMPLES);
+        terrain.fill(0, length, heights, 0);
+        float spacing = terrain.getSpacingMeters();
+
+        CollectibleGenerator generator = GameSession.createCollectibleGenerator(level, xMeters -> {
+            float position = xMeters / spacing;
+            int x1 = (int) position;
+            if (x1 < 0) return heights[0];
+            if (x1 >= length - 1) return heights[length - 1];
+            float frac = position - x1;
+            return heights[x1] * (1 - frac) + heights[x1 + 1] * frac;
+        });
+        int capacity = (int) (length / PhysicsConstants.PIXELS_PER_METER / CollectibleGenerator.SPAWN_INTERVAL_METERS) + 1;
+        int[] count = new int[1];
+        int[] slots = new int[capacity];
+        float[] xs = new float[capacity];
+        float[] ys = new float[capacity];
+        generator.spawnInRange(Float.NEGATIVE_INFINITY, Float.POSITIVE_INFINITY, (slot, x, y) -> {
+            int i = count[0]++;
+            slots[i] = slot;
+            xs[i] = x;
+            ys[i] = y;
+        });
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + length * Float.BYTES + count[0] * COLLECTIBLE_BYTES);
+        buffer.position(HEADER_BYTES);
+        buffer.asFloatBuffer().put(heights);
+        buffer.position(HEADER_BYTES + length * Float.BYTES);
+        for (int i = 0; i < count[0]; i++) {
+            buffer.putInt(slots[i]).putFloat(xs[i]).putFloat(ys[i]);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), HEADER_BYTES, buffer.capacity() - HEADER_BYTES);
+        buffer.putInt(0, MAGIC)
+                .putInt(4, VERSION)
+                .putLong(8, level.parametersHash())
+                .putLong(16, level.seed)
+                .putInt(24, level.lengthPixels)
+                .putInt(28, length)
+                .putInt(32, count[0])
+                .putFloat(36, spacing)
+                .putLong(40, crc.getValue());
+        return buffer;
+    }
+
+    @Override
+    public int getLength() {
+        return length;
+    }
+
+    @Override
+    public float getSpacingMeters() {
+        return spacing;
+    }
+
+    @Override
+    public void fill(int from, int to, float[] out, int outOffset) {
+        if (from < 0 || to > length || from >= to) {
+            throw new IllegalArgumentException("Invalid terrain range [" + from + ", " + to + ") for length " + length);
+        }
+        heights.get(from, out, outOffset, to - from);
+    }
+
+    @Override
+    public void spawnInRange(float fromXMeters, float toXMeters, SpawnConsumer consumer) {
+        int i = Arrays.binarySearch(xs, fromXMeters);
+        if (i < 0) i = -i - 1;
+        for (; i < xs.length && xs[i] < toXMeters; i++) {
+            consumer.spawn(slots[i], xs[i], ys[i]);
+        }
+    }
+}
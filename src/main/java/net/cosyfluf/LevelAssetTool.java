@@ -0,0 +1,28 @@
+package net.cosyfluf;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Build-time tool that precomputes a {@link LevelAsset} for every finite level of every {@link LevelPack}.
+ * Usage: {@code LevelAssetTool <outputDir>}
+ */
+public class LevelAssetTool {
+
+    public static void main(String[] args) throws IOException {
+        Path outputDir = args.length > 0 ? Paths.get(args[0]) : LevelAsset.levelDirectory();
+        Files.createDirectories(outputDir);
+
+        for (LevelInfo level : LevelPack.allLevels(LevelPack.loadAll())) {
+            if (level.isEndless()) continue;
+
+            Path file = outputDir.resolve(LevelAsset.fileName(level));
+            long start = System.nanoTime();
+            LevelAsset.write(file, level);
+            System.out.printf("%s -> %s (%d Bytes, %.1f ms)%n", level.name, file, Files.size(file),
+                    (System.nanoTime() - start) / 1e6);
+        }
+    }
+}
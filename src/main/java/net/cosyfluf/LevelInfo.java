@@ -1,19 +1,58 @@
 package net.cosyfluf;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class LevelInfo {
+    public static final int DEFAULT_LENGTH_PIXELS = GameSession.LOGICAL_WIDTH * 5;
+    public static final int ENDLESS = Integer.MAX_VALUE;
+
     public final String name;
     public final long seed;
     public final double terrainSmoothness;
     public final double terrainAmplitude;
     public final double terrainNoiseFactor;
     public final double initialCarXFactor;
+    public final int lengthPixels;
 
     public LevelInfo(String name, long seed, double terrainSmoothness, double terrainAmplitude, double terrainNoiseFactor, double initialCarXFactor) {
+        this(name, seed, terrainSmoothness, terrainAmplitude, terrainNoiseFactor, initialCarXFactor, DEFAULT_LENGTH_PIXELS);
+    }
+
+    public LevelInfo(String name, long seed, double terrainSmoothness, double terrainAmplitude, double terrainNoiseFactor, double initialCarXFactor, int lengthPixels) {
         this.name = name;
         this.seed = seed;
         this.terrainSmoothness = terrainSmoothness;
         this.terrainAmplitude = terrainAmplitude;
         this.terrainNoiseFactor = terrainNoiseFactor;
         this.initialCarXFactor = initialCarXFactor;
+        this.lengthPixels = lengthPixels;
+    }
+
+    public long parametersHash() {
+        long hash = 1125899906842597L;
+        hash = 31 * hash + seed;
+        hash = 31 * hash + Double.doubleToLongBits(terrainSmoothness);
+        hash = 31 * hash + Double.doubleToLongBits(terrainAmplitude);
+        hash = 31 * hash + Double.doubleToLongBits(terrainNoiseFactor);
+        hash = 31 * hash + Double.doubleToLongBits(initialCarXFactor);
+        hash = 31 * hash + lengthPixels;
+        return hash;
+    }
+
+    public boolean isEndless() {
+        return lengthPixels == ENDLESS;
+    }
+
+    public static List<LevelInfo> defaultLevels() {
+        List<LevelInfo> levels = new ArrayList<>();
+        levels.add(new LevelInfo("Easy Hills", 12345L, 0.005, 150.0, 10.0, 0.1));
+        levels.add(new LevelInfo("Bumpy Ride", 67890L, 0.008, 180.0, 25.0, 0.05));
+        levels.add(new LevelInfo("Mountain Pass", 11223L, 0.003, 220.0, 15.0, 0.08));
+        levels.add(new LevelInfo("Crazy Terrain", 98765L, 0.012, 120.0, 40.0, 0.03));
+        levels.add(new LevelInfo("Deep Valley", 54321L, 0.006, 250.0, 18.0, 0.07));
+        levels.add(new LevelInfo("Rocky Road", 13579L, 0.015, 100.0, 50.0, 0.02));
+        levels.add(new LevelInfo("Endless Road", 24680L, 0.007, 170.0, 20.0, 0.08, ENDLESS));
+        return levels;
     }
 }
\ No newline at end of file
@@ -0,0 +1,168 @@
+package net.cosyfluf;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * A named list of levels. Besides the built-in pack, packs are text files ending in {@link #FILE_SUFFIX} in
+ * {@link #packDirectory()}, either directly or inside a JAR/ZIP there, or on the classpath under
+ * {@code /levelpacks/}. One level per line, {@code #} starts a comment:
+ *
+ * <pre>
+ * name; seed; terrainSmoothness; terrainAmplitude; terrainNoiseFactor; initialCarXFactor[; lengthPixels | endless]
+ * </pre>
+ */
+public class LevelPack {
+
+    public static final String FILE_SUFFIX = ".hclevels";
+    public static final String PACK_DIR_PROPERTY = "hillclimb.levelPackDir";
+    public static final String RESOURCE_INDEX = "/levelpacks/index.txt";
+
+    public final String name;
+    public final List<LevelInfo> levels;
+
+    public LevelPack(String name, List<LevelInfo> levels) {
+        this.name = name;
+        this.levels = Collections.unmodifiableList(levels);
+    }
+
+    public static Path packDirectory() {
+        return Paths.get(System.getProperty(PACK_DIR_PROPERTY, "levelpacks"));
+    }
+
+    /**
+     * The built-in pack followed by every pack found on the classpath and in {@link #packDirectory()}. Packs that
+     * cannot be read are reported and skipped.
+     */
+    public static List<LevelPack> loadAll() {
+        List<LevelPack> packs = new ArrayList<>();
+        packs.add(new LevelPack("Standard", LevelInfo.defaultLevels()));
+        loadResources(packs);
+
+        Path directory = packDirectory();
+        if (Files.isDirectory(directory)) {
+            List<Path> files = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+                for (Path file : stream) files.add(file);
+            } catch (IOException e) {
+                System.out.println("Level-Pack-Verzeichnis " + directory + " nicht lesbar: " + e.getMessage());
+            }
+            Collections.sort(files);
+            for (Path file : files) {
+                String fileName = file.getFileName().toString();
+                if (fileName.endsWith(FILE_SUFFIX)) {
+                    loadFile(file, packs);
+                } else if (fileName.endsWith(".jar") || fileName.endsWith(".zip")) {
+                    loadArchive(file, packs);
+                }
+            }
+        }
+        return packs;
+    }
+
+    public static List<LevelInfo> allLevels(List<LevelPack> packs) {
+        List<LevelInfo> levels = new ArrayList<>();
+        for (LevelPack pack : packs) levels.addAll(pack.levels);
+        return levels;
+    }
+
+    private static void loadFile(Path file, List<LevelPack> packs) {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            packs.add(parse(packName(file.getFileName().toString()), reader));
+        } catch (IOException e) {
+            System.out.println("Level-Pack " + file + " wird übersprungen: " + e.getMessage());
+        }
+    }
+
+    private static void loadArchive(Path archive, List<LevelPack> packs) {
+        try (FileSystem zip = FileSystems.newFileSystem(archive, (ClassLoader) null)) {
+            List<Path> files = new ArrayList<>();
+            for (Path root : zip.getRootDirectories()) {
+                try (Stream<Path> walk = Files.walk(root)) {
+                    walk.filter(p -> p.toString().endsWith(FILE_SUFFIX)).forEach(files::add);
+                }
+            }
+            Collections.sort(files);
+            for (Path file : files) loadFile(file, packs);
+        } catch (IOException e) {
+            System.out.println("Level-Pack-Archiv " + archive + " wird übersprungen: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Packs bundled on the classpath, listed one resource name per line in {@link #RESOURCE_INDEX}.
+     */
+    private static void loadResources(List<LevelPack> packs) {
+        InputStream index = LevelPack.class.getResourceAsStream(RESOURCE_INDEX);
+        if (index == null) return;
+        try (BufferedReader names = new BufferedReader(new InputStreamReader(index, StandardCharsets.UTF_8))) {
+            for (String line = names.readLine(); line != null; line = names.readLine()) {
+                String resource = line.trim();
+                if (resource.isEmpty() || resource.startsWith("#")) continue;
+                InputStream in = LevelPack.class.getResourceAsStream("/levelpacks/" + resource);
+                if (in == null) {
+                    System.out.println("Level-Pack-Ressource " + resource + " fehlt.");
+                    continue;
+                }
+                try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+                    packs.add(parse(packName(resource), reader));
+                } catch (IOException e) {
+                    System.out.println("Level-Pack-Ressource " + resource + " wird übersprungen: " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("Level-Pack-Index nicht lesbar: " + e.getMessage());
+        }
+    }
+
+    private static String packName(String fileName) {
+        return fileName.endsWith(FILE_SUFFIX) ? fileName.substring(0, fileName.length() - FILE_SUFFIX.length()) : fileName;
+    }
+
+    public static LevelPack parse(String name, Reader source) throws IOException {
+        BufferedReader reader = source instanceof BufferedReader ? (BufferedReader) source : new BufferedReader(source);
+        List<LevelInfo> levels = new ArrayList<>();
+        int lineNumber = 0;
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            lineNumber++;
+            int comment = line.indexOf('#');
+            if (comment >= 0) line = line.substring(0, comment);
+            if (line.isBlank()) continue;
+
+            String[] fields = line.split(";");
+            if (fields.length != 6 && fields.length != 7) {
+                throw new IOException("Zeile " + lineNumber + ": 6 oder 7 Felder erwartet, " + fields.length + " gefunden");
+            }
+            try {
+                int lengthPixels = LevelInfo.DEFAULT_LENGTH_PIXELS;
+                if (fields.length == 7) {
+                    String length = fields[6].trim();
+                    lengthPixels = length.equalsIgnoreCase("endless") ? LevelInfo.ENDLESS : Integer.parseInt(length);
+                    if (lengthPixels <= GameSession.LOGICAL_WIDTH) {
+                        throw new IOException("Zeile " + lineNumber + ": Level kürzer als ein Bildschirm");
+                    }
+                }
+                levels.add(new LevelInfo(fields[0].trim(), Long.parseLong(fields[1].trim()),
+                        Double.parseDouble(fields[2].trim()), Double.parseDouble(fields[3].trim()),
+                        Double.parseDouble(fields[4].trim()), Double.parseDouble(fields[5].trim()), lengthPixels));
+            } catch (NumberFormatException e) {
+                throw new IOException("Zeile " + lineNumber + ": " + e.getMessage());
+            }
+        }
+        return new LevelPack(name, levels);
+    }
+}
@@ -0,0 +1,40 @@
+package net.cosyfluf;
+
+/**
+ * Same generator and output as {@link java.util.Random}, but with its 48-bit state exposed so terrain and
+ * collectible streams can be checkpointed per chunk and resumed later.
+ */
+public final class LevelRandom {
+
+    private static final long MULTIPLIER = 0x5DEECE66DL;
+    private static final long ADDEND = 0xBL;
+    private static final long MASK = (1L << 48) - 1;
+    private static final double DOUBLE_UNIT = 0x1.0p-53;
+
+    private long state;
+
+    public LevelRandom(long seed) {
+        this.state = (seed ^ MULTIPLIER) & MASK;
+    }
+
+    public long getState() {
+        return state;
+    }
+
+    public void setState(long state) {
+        this.state = state;
+    }
+
+    private int next(int bits) {
+        state = (state * MULTIPLIER + ADDEND) & MASK;
+        return (int) (state >>> (48 - bits));
+    }
+
+    public double nextDouble() {
+        return (((long) (next(26)) << 27) + next(27)) * DOUBLE_UNIT;
+    }
+
+    public float nextFloat() {
+        return next(24) / ((float) (1 << 24));
+    }
+}
@@ -0,0 +1,151 @@
+package net.cosyfluf;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.Path2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Terrain preview images for the level menu. {@link #get} never blocks: it returns the thumbnail if it is ready
+ * and otherwise queues it, so only levels that are actually shown get one. Thumbnails are read from or rendered
+ * into {@link #thumbnailDirectory()} on background threads, keyed by {@link LevelInfo#parametersHash()}, and
+ * {@code onReady} is called from that thread whenever one becomes available.
+ */
+public class LevelThumbnailCache {
+
+    public static final int WIDTH = 160;
+    public static final int HEIGHT = 48;
+    public static final String THUMBNAIL_DIR_PROPERTY = "hillclimb.thumbnailDir";
+
+    // Endless levels are previewed over their first few screens.
+    private static final int ENDLESS_PREVIEW_PIXELS = GameSession.LOGICAL_WIDTH * 5;
+    private static final Color SKY_TOP = new Color(135, 206, 250);
+    private static final Color SKY_BOTTOM = new Color(70, 130, 180);
+    private static final Color TERRAIN_TOP = new Color(34, 139, 34);
+    private static final Color TERRAIN_BOTTOM = new Color(139, 69, 19);
+
+    private final Map<Long, BufferedImage> ready = new ConcurrentHashMap<>();
+    private final Map<Long, Boolean> requested = new ConcurrentHashMap<>();
+    private final ExecutorService executor = createExecutor();
+    private final Runnable onReady;
+
+    public LevelThumbnailCache(Runnable onReady) {
+        this.onReady = onReady;
+    }
+
+    public static Path thumbnailDirectory() {
+        return Paths.get(System.getProperty(THUMBNAIL_DIR_PROPERTY, "thumbnails"));
+    }
+
+    /**
+     * Virtual threads where the runtime has them (looked up reflectively, the build targets Java 17), otherwise a
+     * small pool of daemon threads.
+     */
+    private static ExecutorService createExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            int threads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+            return Executors.newFixedThreadPool(threads, task -> {
+                Thread thread = new Thread(task, "level-thumbnails");
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            });
+        }
+    }
+
+    public BufferedImage get(LevelInfo level) {
+        long key = level.parametersHash();
+        BufferedImage image = ready.get(key);
+        if (image == null && requested.putIfAbsent(key, Boolean.TRUE) == null) {
+            executor.execute(() -> load(level, key));
+        }
+        return image;
+    }
+
+    private void load(LevelInfo level, long key) {
+        Path file = thumbnailDirectory().resolve(String.format("thumb-%016x-%dx%d.png", key, WIDTH, HEIGHT));
+        BufferedImage image = null;
+        if (Files.isRegularFile(file)) {
+            try {
+                image = ImageIO.read(file.toFile());
+            } catch (IOException e) {
+                System.out.println("Vorschaubild " + file + " ist ungültig und wird neu erzeugt: " + e.getMessage());
+            }
+        }
+        if (image == null || image.getWidth() != WIDTH || image.getHeight() != HEIGHT) {
+            image = render(level);
+            try {
+                Files.createDirectories(file.getParent());
+                Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+                ImageIO.write(image, "png", temp.toFile());
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                System.out.println("Vorschaubild konnte nicht gespeichert werden: " + e.getMessage());
+            }
+        }
+        ready.put(key, image);
+        onReady.run();
+    }
+
+    /**
+     * Draws the whole terrain of {@code level} squeezed into one thumbnail, scaled vertically to its own height
+     * range so flat and steep levels can be told apart.
+     */
+    public static BufferedImage render(LevelInfo level) {
+        int length = level.isEndless() ? ENDLESS_PREVIEW_PIXELS : level.lengthPixels;
+        double[] heights = new double[length];
+        new TerrainGenerator(level, StreamingTerrain.CHUNK_SAMPLES).generatePixels(0, length, heights, 0);
+
+        double top = Double.MAX_VALUE;
+        double bottom = -Double.MAX_VALUE;
+        for (double y : heights) {
+            top = Math.min(top, y);
+            bottom = Math.max(bottom, y);
+        }
+        double range = Math.max(bottom - top, 1.0);
+        double scaleY = HEIGHT * 0.6 / range;
+        double offsetY = HEIGHT * 0.3 - top * scaleY;
+
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setPaint(new GradientPaint(0, 0, SKY_TOP, 0, HEIGHT, SKY_BOTTOM));
+            g.fillRect(0, 0, WIDTH, HEIGHT);
+
+            Path2D.Float surface = new Path2D.Float();
+            for (int column = 0; column <= WIDTH; column++) {
+                int sample = Math.min(length - 1, (int) ((long) column * (length - 1) / WIDTH));
+                float y = (float) (heights[sample] * scaleY + offsetY);
+                if (column == 0) surface.moveTo(column, y);
+                else surface.lineTo(column, y);
+            }
+            Path2D.Float body = new Path2D.Float(surface);
+            body.lineTo(WIDTH, HEIGHT);
+            body.lineTo(0, HEIGHT);
+            body.closePath();
+
+            g.setColor(TERRAIN_TOP);
+            g.fill(body);
+            g.setColor(TERRAIN_BOTTOM);
+            g.draw(surface);
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+}
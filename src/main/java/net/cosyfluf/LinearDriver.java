@@ -0,0 +1,59 @@
+package net.cosyfluf;
+
+import java.util.Random;
+
+/**
+ * A single-layer controller: one weighted sum of the observation features (plus bias) each for throttle,
+ * reverse and nitro. Throttle wins over reverse; nitro only fires while driving forward.
+ */
+public class LinearDriver implements DriverController {
+
+    private static final int OUTPUTS = 3;
+    private static final int WEIGHTS_PER_OUTPUT = DriverObservation.FEATURES + 1;
+
+    private final float[] weights;
+
+    public LinearDriver(float[] weights) {
+        if (weights.length != OUTPUTS * WEIGHTS_PER_OUTPUT) {
+            throw new IllegalArgumentException("Expected " + OUTPUTS * WEIGHTS_PER_OUTPUT + " weights, got " + weights.length);
+        }
+        this.weights = weights.clone();
+    }
+
+    public static LinearDriver random(Random random) {
+        float[] weights = new float[OUTPUTS * WEIGHTS_PER_OUTPUT];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = (float) random.nextGaussian();
+        }
+        return new LinearDriver(weights);
+    }
+
+    public LinearDriver mutate(Random random, float sigma) {
+        float[] child = weights.clone();
+        for (int i = 0; i < child.length; i++) {
+            child[i] += (float) random.nextGaussian() * sigma;
+        }
+        return new LinearDriver(child);
+    }
+
+    @Override
+    public int decide(DriverObservation observation) {
+        boolean forward = output(0, observation.features) > 0;
+        boolean reverse = !forward && output(1, observation.features) > 0;
+        boolean nitro = forward && output(2, observation.features) > 0;
+        return DriveInput.of(forward, reverse, nitro);
+    }
+
+    private float output(int index, float[] features) {
+        int offset = index * WEIGHTS_PER_OUTPUT;
+        float sum = weights[offset];
+        for (int i = 0; i < features.length; i++) {
+            sum += weights[offset + 1 + i] * features[i];
+        }
+        return sum;
+    }
+
+    public float[] getWeights() {
+        return weights.clone();
+    }
+}
@@ -4,7 +4,6 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
-import java.util.ArrayList;
 import java.util.List;
 
 public class MainFrame extends JFrame {
@@ -18,6 +17,10 @@ public class MainFrame extends JFrame {
 
     private int lastPlayedLevelIndex = 0;
 
+    private final boolean activeRenderingEnabled = Boolean.getBoolean("hillclimb.activeRendering");
+    private final int renderBuffers = Integer.getInteger("hillclimb.renderBuffers", 3);
+    private ActiveRenderer activeRenderer;
+
     public MainFrame() {
         setTitle("2D Hill Climb (JBox2D & Java)");
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -25,13 +28,11 @@ public class MainFrame extends JFrame {
 
         graphicsDevice = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice();
 
-        List<LevelInfo> levels = new ArrayList<>();
-        levels.add(new LevelInfo("Easy Hills", 12345L, 0.005, 150.0, 10.0, 0.1));
-        levels.add(new LevelInfo("Bumpy Ride", 67890L, 0.008, 180.0, 25.0, 0.05));
-        levels.add(new LevelInfo("Mountain Pass", 11223L, 0.003, 220.0, 15.0, 0.08));
-        levels.add(new LevelInfo("Crazy Terrain", 98765L, 0.012, 120.0, 40.0, 0.03));
-        levels.add(new LevelInfo("Deep Valley", 54321L, 0.006, 250.0, 18.0, 0.07));
-        levels.add(new LevelInfo("Rocky Road", 13579L, 0.015, 100.0, 50.0, 0.02));
+        List<LevelPack> packs = LevelPack.loadAll();
+        List<LevelInfo> levels = LevelPack.allLevels(packs);
+        if (packs.size() > 1) {
+            System.out.println(packs.size() + " Level-Packs mit " + levels.size() + " Leveln geladen.");
+        }
 
         gamePanel = new GamePanel(this, levels);
         add(gamePanel);
@@ -42,6 +43,7 @@ public class MainFrame extends JFrame {
         originalLocation = getLocation();
 
         setVisible(true);
+        startActiveRendering();
 
         addKeyListener(new KeyAdapter() {
             @Override
@@ -72,6 +74,7 @@ public class MainFrame extends JFrame {
     public void showMainMenu() {
 
         if (isFullscreen) {
+            stopActiveRendering();
             setVisible(false);
             graphicsDevice.setFullScreenWindow(null);
 
@@ -80,6 +83,7 @@ public class MainFrame extends JFrame {
 
             setVisible(true);
             isFullscreen = false;
+            startActiveRendering();
         }
         gamePanel.showMainMenu();
         gamePanel.requestFocusInWindow();
@@ -87,6 +91,7 @@ public class MainFrame extends JFrame {
 
     public void exitFullscreenAndContinueGame() {
         if (isFullscreen) {
+            stopActiveRendering();
             setVisible(false);
             graphicsDevice.setFullScreenWindow(null);
 
@@ -95,6 +100,7 @@ public class MainFrame extends JFrame {
 
             setVisible(true);
             isFullscreen = false;
+            startActiveRendering();
         }
         gamePanel.requestFocusInWindow();
         gamePanel.startGameTimer();
@@ -103,12 +109,14 @@ public class MainFrame extends JFrame {
     public void showGameOverScreen() {
 
         if (isFullscreen) {
+            stopActiveRendering();
             setVisible(false);
             graphicsDevice.setFullScreenWindow(null);
             setSize(originalSize);
             setLocation(originalLocation);
             setVisible(true);
             isFullscreen = false;
+            startActiveRendering();
         }
         gamePanel.showGameOverScreen();
         gamePanel.requestFocusInWindow();
@@ -120,11 +128,13 @@ public class MainFrame extends JFrame {
             originalSize = getSize();
             originalLocation = getLocation();
 
+            stopActiveRendering();
             setVisible(false);
             graphicsDevice.setFullScreenWindow(this);
 
             setVisible(true);
             isFullscreen = true;
+            startActiveRendering();
 
         } else if (!graphicsDevice.isFullScreenSupported()) {
             System.out.println("Vollbildmodus wird auf diesem Gerät nicht unterstützt. Maximiertes Fenster wird stattdessen verwendet.");
@@ -136,7 +146,33 @@ public class MainFrame extends JFrame {
         gamePanel.startGame(levelIndex);
         gamePanel.requestFocusInWindow();
         revalidate();
-        repaint();
+        if (activeRenderer == null) {
+            repaint();
+        }
+    }
+
+    private void startActiveRendering() {
+        if (!activeRenderingEnabled || activeRenderer != null) return;
+
+        setIgnoreRepaint(true);
+        gamePanel.setIgnoreRepaint(true);
+        gamePanel.setActiveRendering(true);
+
+        boolean exclusiveFullscreen = graphicsDevice.isFullScreenSupported() && graphicsDevice.getFullScreenWindow() == this;
+        activeRenderer = new ActiveRenderer(this, gamePanel, renderBuffers, exclusiveFullscreen);
+        activeRenderer.start();
+        System.out.println("Aktives Rendering gestartet (" + (activeRenderer.isPageFlipping() ? "Page-Flipping" : "Blitting") + ").");
+    }
+
+    private void stopActiveRendering() {
+        if (activeRenderer == null) return;
+
+        activeRenderer.stop();
+        activeRenderer = null;
+
+        gamePanel.setActiveRendering(false);
+        gamePanel.setIgnoreRepaint(false);
+        setIgnoreRepaint(false);
     }
 
     public static void main(String[] args) {
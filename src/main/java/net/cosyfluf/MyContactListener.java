@@ -8,10 +8,10 @@ import org.jbox2d.callbacks.ContactImpulse;
 
 public class MyContactListener implements ContactListener {
 
-    private GamePanel gamePanel;
+    private GameSession session;
 
-    public MyContactListener(GamePanel gamePanel) {
-        this.gamePanel = gamePanel;
+    public MyContactListener(GameSession session) {
+        this.session = session;
     }
 
     @Override
@@ -19,16 +19,18 @@ public class MyContactListener implements ContactListener {
         Fixture fixtureA = contact.getFixtureA();
         Fixture fixtureB = contact.getFixtureB();
 
-        Object userDataA = fixtureA.getUserData();
-        Object userDataB = fixtureB.getUserData();
-
-        if (userDataA instanceof Car && userDataB instanceof Collectible) {
-            gamePanel.handleCollectibleCollision((Car)userDataA, (Collectible)userDataB);
-        } else if (userDataB instanceof Car && userDataA instanceof Collectible) {
-            gamePanel.handleCollectibleCollision((Car)userDataB, (Collectible)userDataA);
+        // The collision masks only let collectibles meet the chassis, whose user data is the car.
+        if (isCollectible(fixtureA)) {
+            session.handleCollectibleCollision((Car) fixtureB.getUserData(), (Collectible) fixtureA.getUserData());
+        } else if (isCollectible(fixtureB)) {
+            session.handleCollectibleCollision((Car) fixtureA.getUserData(), (Collectible) fixtureB.getUserData());
         }
     }
 
+    private static boolean isCollectible(Fixture fixture) {
+        return (fixture.getFilterData().categoryBits & PhysicsConstants.CATEGORY_COLLECTIBLE) != 0;
+    }
+
     @Override
     public void endContact(Contact contact) {
 
@@ -37,14 +39,6 @@ public class MyContactListener implements ContactListener {
     @Override
     public void preSolve(Contact contact, Manifold oldManifold) {
 
-        Fixture fixtureA = contact.getFixtureA();
-        Fixture fixtureB = contact.getFixtureB();
-
-        boolean isCollectible = (fixtureA.getUserData() instanceof Collectible || fixtureB.getUserData() instanceof Collectible);
-
-        if (isCollectible) {
-            contact.setEnabled(false);
-        }
     }
 
     @Override
@@ -6,7 +6,9 @@ public class PhysicsConstants {
     public static final float PIXELS_PER_METER = 30.0f;
     public static final Vec2 GRAVITY = new Vec2(0.0f, -10.0f);
 
-    public static final float TIME_STEP = 1.0f / 60.0f;
+    public static final int DEFAULT_PHYSICS_HZ = 60;
+    public static final float TIME_STEP = 1.0f / DEFAULT_PHYSICS_HZ;
+    public static final int MAX_STEPS_PER_FRAME = 5;
     public static final int VELOCITY_ITERATIONS = 6;
     public static final int POSITION_ITERATIONS = 2;
 
@@ -21,4 +23,16 @@ public class PhysicsConstants {
     public static final float UPSIDE_DOWN_GAME_OVER_TIME = 3.0f;
 
     public static final float WHEEL_RADIUS = 0.4f;
+
+    // Collision categories: collectibles only ever pair with the chassis, so wheel and terrain pairs with them
+    // are rejected before a contact exists.
+    public static final int CATEGORY_TERRAIN = 0x0001;
+    public static final int CATEGORY_CHASSIS = 0x0002;
+    public static final int CATEGORY_WHEEL = 0x0004;
+    public static final int CATEGORY_COLLECTIBLE = 0x0008;
+
+    public static final int MASK_TERRAIN = CATEGORY_CHASSIS | CATEGORY_WHEEL;
+    public static final int MASK_CHASSIS = CATEGORY_TERRAIN | CATEGORY_COLLECTIBLE;
+    public static final int MASK_WHEEL = CATEGORY_TERRAIN;
+    public static final int MASK_COLLECTIBLE = CATEGORY_CHASSIS;
 }
\ No newline at end of file
@@ -0,0 +1,46 @@
+package net.cosyfluf;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+
+/**
+ * File names for recordings that are written once per run, like replays and telemetry. Names carry the time down
+ * to the millisecond, and {@link #createNew} never hands out a file that already exists, so two runs that end
+ * close together both keep their file.
+ */
+final class RecordingFiles {
+
+    // Used on every run and from the writer threads; unlike SimpleDateFormat the formatter is thread-safe.
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+
+    private RecordingFiles() {
+    }
+
+    static String fileName(String kind, LevelInfo level, Date recordedAt, String suffix) {
+        return String.format("%s-%016x-%s%s", kind, level.parametersHash(),
+                FILE_TIME.format(LocalDateTime.ofInstant(recordedAt.toInstant(), ZoneId.systemDefault())), suffix);
+    }
+
+    /**
+     * Creates {@code fileName} in {@code directory} as a new empty file, or {@code name-2}, {@code name-3}, ... in
+     * front of {@code suffix} if it is taken.
+     */
+    static Path createNew(Path directory, String fileName, String suffix) throws IOException {
+        Files.createDirectories(directory);
+        String stem = fileName.endsWith(suffix) ? fileName.substring(0, fileName.length() - suffix.length()) : fileName;
+        for (int attempt = 1; ; attempt++) {
+            Path file = directory.resolve(attempt == 1 ? stem + suffix : stem + "-" + attempt + suffix);
+            try {
+                return Files.createFile(file);
+            } catch (FileAlreadyExistsException e) {
+                // Taken by an earlier run; try the next number.
+            }
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package net.cosyfluf;
+
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.geom.AffineTransform;
+import java.awt.image.VolatileImage;
+
+/**
+ * Render-resolution scaling for the game scene. Below a scale of 1 the scene is drawn into an offscreen
+ * {@link VolatileImage} with that fraction of the panel's pixels and stretched onto the panel with one
+ * {@code drawImage}; the HUD and menus are still drawn at native resolution on top. The stretch is bilinear only
+ * if the buffer is accelerated: Java2D's software loops need about 40 ms for a bilinear 1080p blit against 2 ms
+ * for nearest neighbor.
+ * <p>
+ * {@value #RENDER_SCALE_PROPERTY} is {@code 1} (native, the default), a fixed scale down to {@value #MIN_SCALE},
+ * or {@code auto}. In auto mode the scale follows the average frame time over {@value #WINDOW_FRAMES} frames: it
+ * drops a step while frames take longer than {@value #TARGET_FRACTION} of the display's frame interval and rises
+ * a step once they take less than {@value #RAISE_FRACTION} of it. Drawing cost grows with the square of the
+ * scale, at most about 1.56x for one step up from the minimum, so a raise cannot push the frame time straight
+ * back over the target.
+ */
+public class RenderScaler {
+
+    public static final String RENDER_SCALE_PROPERTY = "hillclimb.renderScale";
+    public static final float MIN_SCALE = 0.5f;
+    public static final float STEP = 0.125f;
+
+    private static final double TARGET_FRACTION = 0.75;
+    private static final double RAISE_FRACTION = 0.45;
+    private static final int WINDOW_FRAMES = 30;
+    private static final AffineTransform IDENTITY = new AffineTransform();
+
+    private final boolean adaptive;
+    private final long targetNanos;
+    private float scale;
+
+    private long windowNanos;
+    private int windowFrames;
+    private long scaleChanges;
+
+    private VolatileImage buffer;
+    private Graphics2D bufferGraphics;
+    private Object interpolation;
+    private int sceneWidth;
+    private int sceneHeight;
+
+    public RenderScaler(boolean adaptive, float scale, long frameIntervalNanos) {
+        this.adaptive = adaptive;
+        this.scale = clamp(scale);
+        this.targetNanos = (long) (frameIntervalNanos * TARGET_FRACTION);
+    }
+
+    public static RenderScaler fromSystemProperty(long frameIntervalNanos) {
+        String value = System.getProperty(RENDER_SCALE_PROPERTY, "1").trim();
+        if (value.equalsIgnoreCase("auto")) {
+            return new RenderScaler(true, 1.0f, frameIntervalNanos);
+        }
+        try {
+            return new RenderScaler(false, Float.parseFloat(value), frameIntervalNanos);
+        } catch (NumberFormatException e) {
+            System.out.println("Ungültige Render-Skala '" + value + "', verwende native Auflösung.");
+            return new RenderScaler(false, 1.0f, frameIntervalNanos);
+        }
+    }
+
+    private static float clamp(float scale) {
+        return Math.max(MIN_SCALE, Math.min(1.0f, scale));
+    }
+
+    public boolean isAdaptive() {
+        return adaptive;
+    }
+
+    public float getScale() {
+        return scale;
+    }
+
+    public long getScaleChanges() {
+        return scaleChanges;
+    }
+
+    /**
+     * Whether the scene goes through the offscreen buffer this frame, i.e. {@link #beginScene} has to be used.
+     */
+    public boolean isScaling() {
+        return scale < 1.0f;
+    }
+
+    /**
+     * The buffer's graphics for a panel of {@code width x height}, reset to an identity transform and clipped to
+     * the part covering {@link #getSceneWidth()} x {@link #getSceneHeight()} pixels.
+     */
+    public Graphics2D beginScene(GraphicsConfiguration gc, int width, int height) {
+        sceneWidth = Math.max(1, (int) Math.ceil(width * scale));
+        sceneHeight = Math.max(1, (int) Math.ceil(height * scale));
+
+        // Sized for the whole panel so changing the scale never reallocates it.
+        if (buffer == null || buffer.getWidth() < width || buffer.getHeight() < height
+                || buffer.validate(gc) == VolatileImage.IMAGE_INCOMPATIBLE) {
+            if (bufferGraphics != null) bufferGraphics.dispose();
+            if (buffer != null) buffer.flush();
+            buffer = gc.createCompatibleVolatileImage(Math.max(1, width), Math.max(1, height), Transparency.OPAQUE);
+            buffer.validate(gc);
+            interpolation = buffer.getCapabilities(gc).isAccelerated()
+                    ? RenderingHints.VALUE_INTERPOLATION_BILINEAR : RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR;
+            bufferGraphics = buffer.createGraphics();
+            bufferGraphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            bufferGraphics.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+        }
+        bufferGraphics.setTransform(IDENTITY);
+        bufferGraphics.setClip(0, 0, sceneWidth, sceneHeight);
+        return bufferGraphics;
+    }
+
+    /**
+     * Stretches the scene drawn since {@link #beginScene} over {@code width x height} of {@code target}. A lost
+     * buffer shows one stale or blank frame; the next frame draws it anew anyway.
+     */
+    public void endScene(Graphics2D target, int width, int height) {
+        Object previous = target.getRenderingHint(RenderingHints.KEY_INTERPOLATION);
+        target.setRenderingHint(RenderingHints.KEY_INTERPOLATION, interpolation);
+        target.drawImage(buffer, 0, 0, width, height, 0, 0, sceneWidth, sceneHeight, null);
+        if (previous != null) {
+            target.setRenderingHint(RenderingHints.KEY_INTERPOLATION, previous);
+        }
+    }
+
+    public int getSceneWidth() {
+        return sceneWidth;
+    }
+
+    public int getSceneHeight() {
+        return sceneHeight;
+    }
+
+    /**
+     * Feeds the time the last frame took to draw to the controller; does nothing with a fixed scale.
+     */
+    public void frameRendered(long frameNanos) {
+        if (!adaptive) return;
+        windowNanos += frameNanos;
+        if (++windowFrames < WINDOW_FRAMES) return;
+
+        long average = windowNanos / windowFrames;
+        windowNanos = 0;
+        windowFrames = 0;
+        float next = scale;
+        if (average > targetNanos) {
+            next = clamp(scale - STEP);
+        } else if (average < targetNanos / TARGET_FRACTION * RAISE_FRACTION) {
+            next = clamp(scale + STEP);
+        }
+        if (next != scale) {
+            scale = next;
+            scaleChanges++;
+        }
+    }
+}
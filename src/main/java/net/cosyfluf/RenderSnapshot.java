@@ -0,0 +1,120 @@
+package net.cosyfluf;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Everything the renderer needs from one simulation tick, copied out of the session so that drawing never
+ * touches JBox2D objects. Instances are preallocated and recycled by {@link RenderSnapshotExchange}; the
+ * simulation rewrites every field in {@link #capture} before publishing.
+ */
+public class RenderSnapshot {
+
+    public static final int INPUT_HISTORY = 64;
+
+    // Collectibles this far outside the camera window are left out.
+    private static final double COLLECTIBLE_MARGIN_METERS = Collectible.RADIUS_METERS;
+
+    public LevelInfo level;
+    public boolean hasCar;
+    public final CarPose previousPose = new CarPose();
+    public final CarPose currentPose = new CarPose();
+    public double previousCameraOffsetX;
+    public double currentCameraOffsetX;
+
+    public long tickCount;
+    public float timeStep;
+    /** {@link System#nanoTime()} that the current pose belongs to; later frames interpolate towards it. */
+    public long timeNanos;
+    public long stepNanos;
+
+    public boolean nitroActive;
+    public float nitroFuel;
+    public float nitroCooldown;
+    public float speedMPS;
+
+    public int collectibleCount;
+    public float[] collectibleX = new float[32];
+    public float[] collectibleY = new float[32];
+    public float[] collectibleRadius = new float[32];
+
+    public List<GhostPlayback> ghosts = Collections.emptyList();
+
+    public boolean hasStepper;
+    public int subSteps;
+    public int velocityIterations;
+    public int positionIterations;
+    public boolean continuous;
+    public long degradedTicks;
+    public long stepperTicks;
+
+    /** Drive key edges applied so far and the tick times of the last {@link #INPUT_HISTORY} of them. */
+    public long inputEdges;
+    public final long[] inputTickNanos = new long[INPUT_HISTORY];
+
+    public void capture(GameSession session, FixedStepLoop stepLoop, List<GhostPlayback> ghosts, DriveInputRing input) {
+        level = session.getLevel();
+        Car car = session.getCar();
+        hasCar = car != null;
+        session.copyPoses(previousPose, currentPose);
+        previousCameraOffsetX = session.getCameraOffsetX(previousPose.chassisX);
+        currentCameraOffsetX = session.getCameraOffsetX(currentPose.chassisX);
+
+        tickCount = session.getTickCount();
+        timeStep = session.getTimeStep();
+        timeNanos = stepLoop.getSimulatedTimeNanos();
+        stepNanos = stepLoop.getStepNanos();
+
+        if (hasCar) {
+            nitroActive = car.isNitroActive;
+            nitroFuel = car.currentNitroFuel;
+            nitroCooldown = car.nitroCooldownTimer;
+            speedMPS = car.getSpeedMPS();
+        }
+
+        CollectibleIndex collectibles = session.getCollectibles();
+        double from = Math.min(previousCameraOffsetX, currentCameraOffsetX) / PhysicsConstants.PIXELS_PER_METER;
+        double to = (Math.max(previousCameraOffsetX, currentCameraOffsetX) + GameSession.LOGICAL_WIDTH)
+                / PhysicsConstants.PIXELS_PER_METER;
+        collectibleCount = 0;
+        for (int i = collectibles.lowerBound((float) (from - COLLECTIBLE_MARGIN_METERS));
+             i < collectibles.size() && collectibles.xAt(i) <= to + COLLECTIBLE_MARGIN_METERS; i++) {
+            Collectible c = collectibles.get(i);
+            if (c == null) continue;
+            if (collectibleCount == collectibleX.length) {
+                collectibleX = Arrays.copyOf(collectibleX, collectibleCount * 2);
+                collectibleY = Arrays.copyOf(collectibleY, collectibleCount * 2);
+                collectibleRadius = Arrays.copyOf(collectibleRadius, collectibleCount * 2);
+            }
+            collectibleX[collectibleCount] = c.x;
+            collectibleY[collectibleCount] = c.y;
+            collectibleRadius[collectibleCount] = c.getRadiusMeters();
+            collectibleCount++;
+        }
+
+        this.ghosts = ghosts;
+
+        AdaptiveStepper stepper = session.getStepper();
+        hasStepper = stepper != null;
+        if (hasStepper) {
+            subSteps = stepper.getSubSteps();
+            velocityIterations = stepper.getVelocityIterations();
+            positionIterations = stepper.getPositionIterations();
+            continuous = stepper.isContinuous();
+            degradedTicks = stepper.getDegradedTicks();
+            stepperTicks = stepper.getTicks();
+        }
+
+        input.copyAppliedEdges(this);
+    }
+
+    /**
+     * Interpolation factor for a frame drawn at {@code nowNanos}, clamped so a late simulation holds the last
+     * pose instead of extrapolating.
+     */
+    public float alphaAt(long nowNanos) {
+        if (stepNanos <= 0) return 1.0f;
+        return (float) Math.max(0.0, Math.min(1.0, (double) (nowNanos - timeNanos) / stepNanos));
+    }
+}
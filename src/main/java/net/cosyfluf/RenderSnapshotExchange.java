@@ -0,0 +1,47 @@
+package net.cosyfluf;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lock-free triple buffer between the simulation and the renderer. The producer fills {@link #back()} and
+ * {@link #publish()}es it by swapping it with the shared middle buffer; the consumer's {@link #acquire()} swaps
+ * the middle buffer for its front one if something new was published since. Neither side ever waits, the
+ * renderer always sees a complete snapshot, and snapshots the renderer was too slow for are simply replaced.
+ * <p>
+ * One producer and one consumer at a time; callers serialize each side themselves.
+ */
+public class RenderSnapshotExchange {
+
+    private static final int INDEX_MASK = 3;
+    private static final int FRESH = 4;
+
+    private final RenderSnapshot[] buffers = {new RenderSnapshot(), new RenderSnapshot(), new RenderSnapshot()};
+    // Index of the middle buffer, plus FRESH while the consumer has not taken it yet.
+    private final AtomicInteger middle = new AtomicInteger(1);
+    private int back = 0;
+    private int front = 2;
+
+    public RenderSnapshot back() {
+        return buffers[back];
+    }
+
+    /**
+     * Hands the back buffer to the consumer. Returns false if the previously published snapshot was never
+     * acquired and has been dropped.
+     */
+    public boolean publish() {
+        int previous = middle.getAndSet(back | FRESH);
+        back = previous & INDEX_MASK;
+        return (previous & FRESH) == 0;
+    }
+
+    /**
+     * The most recently published snapshot. It stays valid until the next call.
+     */
+    public RenderSnapshot acquire() {
+        if ((middle.get() & FRESH) != 0) {
+            front = middle.getAndSet(front) & INDEX_MASK;
+        }
+        return buffers[front];
+    }
+}
@@ -0,0 +1,216 @@
+package net.cosyfluf;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * A recorded run: the level it was played on and the {@link DriveInput} of every tick, run-length encoded, plus
+ * periodic {@link SessionKeyframe}s for seeking and drift detection. Layout (big endian):
+ *
+ * <pre>
+ * int magic, int version,
+ * long seed, long parametersHash, UTF name, double smoothness, double amplitude, double noiseFactor,
+ * double initialCarXFactor, int lengthPixels,
+ * int physicsHz, byte pickupMode, int stepBudget (version 2), byte result, int tickCount, int keyframeInterval,
+ * int runCount, runCount x varint ((runLength &lt;&lt; 3) | input),
+ * int keyframeCount, keyframeCount x keyframe,
+ * long crc32
+ * </pre>
+ *
+ * The checksum covers everything in front of it. A step budget of 0 means fixed stepping, which is also what
+ * version 1 files were recorded with; see {@link AdaptiveStepper}.
+ */
+public class Replay {
+
+    public static final int MAGIC = 0x48435250;
+    public static final int VERSION = 2;
+    public static final String FILE_SUFFIX = ".hcreplay";
+    public static final String REPLAY_DIR_PROPERTY = "hillclimb.replayDir";
+
+    static final int INPUT_BITS = 3;
+    static final int INPUT_MASK = (1 << INPUT_BITS) - 1;
+
+    public final LevelInfo level;
+    public final int physicsHz;
+    public final GameSession.PickupMode pickupMode;
+    public final int stepBudget;
+    public final GameSession.TickResult result;
+    public final int tickCount;
+    public final int keyframeInterval;
+
+    final int[] runInputs;
+    final int[] runLengths;
+    final int runCount;
+    final List<SessionKeyframe> keyframes;
+
+    Replay(LevelInfo level, int physicsHz, GameSession.PickupMode pickupMode, int stepBudget,
+           GameSession.TickResult result, int tickCount, int keyframeInterval, int[] runInputs, int[] runLengths,
+           int runCount, List<SessionKeyframe> keyframes) {
+        this.level = level;
+        this.physicsHz = physicsHz;
+        this.pickupMode = pickupMode;
+        this.stepBudget = stepBudget;
+        this.result = result;
+        this.tickCount = tickCount;
+        this.keyframeInterval = keyframeInterval;
+        this.runInputs = runInputs;
+        this.runLengths = runLengths;
+        this.runCount = runCount;
+        this.keyframes = keyframes;
+    }
+
+    public static Path replayDirectory() {
+        return Paths.get(System.getProperty(REPLAY_DIR_PROPERTY, "replays"));
+    }
+
+    public static String fileName(LevelInfo level, Date recordedAt) {
+        return RecordingFiles.fileName("replay", level, recordedAt, FILE_SUFFIX);
+    }
+
+    /**
+     * Writes the replay under {@link #fileName} in {@code directory}, numbered if a file of that name already
+     * exists, and returns the file.
+     */
+    public Path save(Path directory, Date recordedAt) throws IOException {
+        Path file = RecordingFiles.createNew(directory, fileName(level, recordedAt), FILE_SUFFIX);
+        write(file);
+        return file;
+    }
+
+    public GameSession newSession() {
+        GameSession session = new GameSession(level, physicsHz, pickupMode);
+        session.setStepper(stepBudget > 0 ? new AdaptiveStepper(stepBudget) : null);
+        return session;
+    }
+
+    public int getRunCount() {
+        return runCount;
+    }
+
+    public List<SessionKeyframe> getKeyframes() {
+        return Collections.unmodifiableList(keyframes);
+    }
+
+    public void write(Path file) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + runCount * 2 + keyframes.size() * 128);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+
+        out.writeLong(level.seed);
+        out.writeLong(level.parametersHash());
+        out.writeUTF(level.name);
+        out.writeDouble(level.terrainSmoothness);
+        out.writeDouble(level.terrainAmplitude);
+        out.writeDouble(level.terrainNoiseFactor);
+        out.writeDouble(level.initialCarXFactor);
+        out.writeInt(level.lengthPixels);
+
+        out.writeInt(physicsHz);
+        out.writeByte(pickupMode.ordinal());
+        out.writeInt(stepBudget);
+        out.writeByte(result.ordinal());
+        out.writeInt(tickCount);
+        out.writeInt(keyframeInterval);
+
+        out.writeInt(runCount);
+        for (int i = 0; i < runCount; i++) {
+            writeVarInt(out, runLengths[i] << INPUT_BITS | runInputs[i]);
+        }
+        out.writeInt(keyframes.size());
+        for (SessionKeyframe keyframe : keyframes) {
+            keyframe.write(out);
+        }
+        out.flush();
+
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        out.writeLong(crc.getValue());
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(temp, bytes.toByteArray());
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static Replay read(Path file) throws IOException {
+        byte[] data = Files.readAllBytes(file);
+        if (data.length < 16) throw new IOException("Datei zu kurz");
+
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, data.length - Long.BYTES);
+        if (crc.getValue() != ByteBuffer.wrap(data).getLong(data.length - Long.BYTES)) {
+            throw new IOException("Prüfsumme stimmt nicht");
+        }
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data, 0, data.length - Long.BYTES));
+        if (in.readInt() != MAGIC) throw new IOException("Keine Replay-Datei");
+        int version = in.readInt();
+        if (version < 1 || version > VERSION) throw new IOException("Version " + version + " wird nicht unterstützt");
+
+        long seed = in.readLong();
+        long parametersHash = in.readLong();
+        LevelInfo level = new LevelInfo(in.readUTF(), seed, in.readDouble(), in.readDouble(), in.readDouble(),
+                in.readDouble(), in.readInt());
+        if (level.parametersHash() != parametersHash) throw new IOException("Level-Parameter passen nicht");
+
+        int physicsHz = in.readInt();
+        GameSession.PickupMode pickupMode = GameSession.PickupMode.values()[in.readUnsignedByte()];
+        int stepBudget = version >= 2 ? in.readInt() : 0;
+        if (stepBudget < 0) throw new IOException("Ungültiges Schritt-Budget");
+        GameSession.TickResult result = GameSession.TickResult.values()[in.readUnsignedByte()];
+        int tickCount = in.readInt();
+        int keyframeInterval = in.readInt();
+
+        int runCount = in.readInt();
+        if (runCount < 0 || runCount > tickCount) throw new IOException("Ungültige Anzahl Eingabe-Läufe");
+        int[] runInputs = new int[runCount];
+        int[] runLengths = new int[runCount];
+        long total = 0;
+        for (int i = 0; i < runCount; i++) {
+            int run = readVarInt(in);
+            runInputs[i] = run & INPUT_MASK;
+            runLengths[i] = run >>> INPUT_BITS;
+            total += runLengths[i];
+        }
+        if (total != tickCount) throw new IOException("Eingaben decken " + total + " statt " + tickCount + " Ticks ab");
+
+        int keyframeCount = in.readInt();
+        List<SessionKeyframe> keyframes = new ArrayList<>(keyframeCount);
+        for (int i = 0; i < keyframeCount; i++) {
+            keyframes.add(SessionKeyframe.read(in));
+        }
+        return new Replay(level, physicsHz, pickupMode, stepBudget, result, tickCount, keyframeInterval, runInputs,
+                runLengths, runCount, keyframes);
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte(value & 0x7F | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("Ungültige Lauflänge");
+    }
+}
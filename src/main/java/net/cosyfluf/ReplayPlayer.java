@@ -0,0 +1,142 @@
+package net.cosyfluf;
+
+import java.util.List;
+
+/**
+ * Feeds a {@link Replay}'s inputs back into a fresh {@link GameSession}, one tick per {@link #step()}, without any
+ * rendering. While playback is exact (from tick 0, no keyframe restored) every recorded keyframe is compared
+ * with the live state, so a run that no longer reproduces reports the first tick where it drifted.
+ */
+public class ReplayPlayer {
+
+    private final Replay replay;
+    private final List<SessionKeyframe> keyframes;
+
+    private GameSession session;
+    private GameSession.TickResult result = GameSession.TickResult.RUNNING;
+    private int run;
+    private int ticksLeftInRun;
+    private int nextKeyframe;
+    private boolean exact = true;
+    private long driftTick = -1;
+
+    public ReplayPlayer(Replay replay) {
+        this.replay = replay;
+        this.keyframes = replay.getKeyframes();
+        this.session = replay.newSession();
+        positionInput(0);
+    }
+
+    public boolean isFinished() {
+        return session.getTickCount() >= replay.tickCount || result != GameSession.TickResult.RUNNING;
+    }
+
+    public GameSession.TickResult step() {
+        verifyKeyframe();
+        while (ticksLeftInRun == 0) {
+            run++;
+            ticksLeftInRun = replay.runLengths[run];
+        }
+        ticksLeftInRun--;
+        result = session.tick(replay.runInputs[run]);
+        if (isFinished()) {
+            verifyKeyframe();
+        }
+        return result;
+    }
+
+    /**
+     * Plays the rest of the replay as fast as the simulation allows.
+     */
+    public GameSession.TickResult runToEnd() {
+        while (!isFinished()) {
+            step();
+        }
+        return result;
+    }
+
+    /**
+     * Moves playback to {@code tick}. Jumps to the latest keyframe at or before {@code tick} when that is ahead of
+     * the current position or the target lies behind it, then simulates the remaining ticks.
+     */
+    public void seek(long tick) {
+        if (tick < 0 || tick > replay.tickCount) {
+            throw new IllegalArgumentException("Tick " + tick + " is outside the replay (0.." + replay.tickCount + ")");
+        }
+
+        SessionKeyframe keyframe = null;
+        for (SessionKeyframe candidate : keyframes) {
+            if (candidate.tick > tick) break;
+            keyframe = candidate;
+        }
+        long current = session.getTickCount();
+        if (tick < current || (keyframe != null && keyframe.tick > current)) {
+            session = replay.newSession();
+            result = GameSession.TickResult.RUNNING;
+            exact = true;
+            if (keyframe != null && keyframe.tick > 0) {
+                session.restoreKeyframe(keyframe);
+                exact = false;
+            }
+            positionInput(session.getTickCount());
+        }
+
+        while (session.getTickCount() < tick && result == GameSession.TickResult.RUNNING) {
+            step();
+        }
+    }
+
+    private void positionInput(long tick) {
+        run = 0;
+        long start = 0;
+        while (run < replay.runCount - 1 && start + replay.runLengths[run] <= tick) {
+            start += replay.runLengths[run];
+            run++;
+        }
+        ticksLeftInRun = replay.runCount == 0 ? 0 : (int) (start + replay.runLengths[run] - tick);
+
+        nextKeyframe = 0;
+        while (nextKeyframe < keyframes.size() && keyframes.get(nextKeyframe).tick < tick) {
+            nextKeyframe++;
+        }
+    }
+
+    private void verifyKeyframe() {
+        long tick = session.getTickCount();
+        while (nextKeyframe < keyframes.size() && keyframes.get(nextKeyframe).tick < tick) {
+            nextKeyframe++;
+        }
+        if (nextKeyframe == keyframes.size() || keyframes.get(nextKeyframe).tick != tick) return;
+
+        SessionKeyframe expected = keyframes.get(nextKeyframe++);
+        if (exact && driftTick < 0 && !expected.sameState(session.captureKeyframe())) {
+            driftTick = tick;
+        }
+    }
+
+    public Replay getReplay() {
+        return replay;
+    }
+
+    public GameSession getSession() {
+        return session;
+    }
+
+    public GameSession.TickResult getResult() {
+        return result;
+    }
+
+    /**
+     * Whether the current state is a bit-exact re-simulation of the recording, i.e. no keyframe was restored.
+     */
+    public boolean isExact() {
+        return exact;
+    }
+
+    /**
+     * First keyframe tick at which an exact playback differed from the recording, or -1.
+     */
+    public long getDriftTick() {
+        return driftTick;
+    }
+}
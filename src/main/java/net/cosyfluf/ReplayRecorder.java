@@ -0,0 +1,91 @@
+package net.cosyfluf;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Records a {@link GameSession} while it is driven through {@link #tick(int)}: consecutive ticks with the same
+ * input collapse into one run, and a keyframe is taken every {@code keyframeInterval} ticks and once at the end.
+ * One recorder follows its session through every {@link #reset()}; each attempt replays on a new session.
+ */
+public class ReplayRecorder {
+
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 10 * PhysicsConstants.DEFAULT_PHYSICS_HZ;
+
+    private static final int MAX_RUN_LENGTH = Integer.MAX_VALUE >>> Replay.INPUT_BITS;
+
+    private final GameSession session;
+    private final int keyframeInterval;
+
+    private int[] runInputs = new int[64];
+    private int[] runLengths = new int[64];
+    private int runCount;
+    private final List<SessionKeyframe> keyframes = new ArrayList<>();
+    private GameSession.TickResult result = GameSession.TickResult.RUNNING;
+
+    public ReplayRecorder(GameSession session) {
+        this(session, DEFAULT_KEYFRAME_INTERVAL);
+    }
+
+    public ReplayRecorder(GameSession session, int keyframeInterval) {
+        if (session.getTickCount() != 0) {
+            throw new IllegalStateException("Recording must start with a fresh session");
+        }
+        if (keyframeInterval <= 0) {
+            throw new IllegalArgumentException("keyframeInterval must be positive: " + keyframeInterval);
+        }
+        this.session = session;
+        this.keyframeInterval = keyframeInterval;
+    }
+
+    public GameSession.TickResult tick(int input) {
+        if (session.getTickCount() % keyframeInterval == 0) {
+            keyframes.add(session.captureKeyframe());
+        }
+
+        input &= Replay.INPUT_MASK;
+        if (runCount > 0 && runInputs[runCount - 1] == input && runLengths[runCount - 1] < MAX_RUN_LENGTH) {
+            runLengths[runCount - 1]++;
+        } else {
+            if (runCount == runInputs.length) {
+                runInputs = Arrays.copyOf(runInputs, runCount * 2);
+                runLengths = Arrays.copyOf(runLengths, runCount * 2);
+            }
+            runInputs[runCount] = input;
+            runLengths[runCount] = 1;
+            runCount++;
+        }
+
+        result = session.tick(input);
+        return result;
+    }
+
+    /**
+     * Resets the session for the next attempt and starts recording it from the beginning.
+     */
+    public void reset() {
+        runCount = 0;
+        keyframes.clear();
+        result = GameSession.TickResult.RUNNING;
+        session.reset();
+    }
+
+    public GameSession getSession() {
+        return session;
+    }
+
+    /**
+     * Snapshot of everything recorded so far, ending with a keyframe of the current state.
+     */
+    public Replay finish() {
+        List<SessionKeyframe> allKeyframes = new ArrayList<>(keyframes);
+        if (allKeyframes.isEmpty() || allKeyframes.get(allKeyframes.size() - 1).tick != session.getTickCount()) {
+            allKeyframes.add(session.captureKeyframe());
+        }
+        AdaptiveStepper stepper = session.getStepper();
+        return new Replay(session.getLevel(), session.getPhysicsHz(), session.getPickupMode(),
+                stepper != null ? stepper.getBudget() : 0, result, (int) session.getTickCount(), keyframeInterval, Arrays.copyOf(runInputs, runCount),
+                Arrays.copyOf(runLengths, runCount), runCount, allKeyframes);
+    }
+}
@@ -0,0 +1,77 @@
+package net.cosyfluf;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Plays a recorded replay without a window, either unthrottled or paced to real time, and reports whether it
+ * reproduced the recording.
+ * Usage: {@code ReplayTool <replayFile> [--realtime] [--seek <tick>]}
+ */
+public class ReplayTool {
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length == 0) {
+            System.out.println("Aufruf: ReplayTool <replayFile> [--realtime] [--seek <tick>]");
+            return;
+        }
+        boolean realTime = false;
+        long seekTick = 0;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--realtime")) {
+                realTime = true;
+            } else if (args[i].equals("--seek") && i + 1 < args.length) {
+                seekTick = Long.parseLong(args[++i]);
+            } else {
+                throw new IllegalArgumentException("Unbekannte Option: " + args[i]);
+            }
+        }
+
+        Path file = Paths.get(args[0]);
+        Replay replay = Replay.read(file);
+        System.out.printf("Replay %s: Level '%s' (Seed %d), %d Ticks bei %d Hz, %s, %d Eingabe-Läufe, %d Keyframes, %d Bytes%n",
+                file, replay.level.name, replay.level.seed, replay.tickCount, replay.physicsHz,
+                replay.stepBudget > 0 ? "Schritt-Budget " + replay.stepBudget : "feste Schritte",
+                replay.getRunCount(), replay.getKeyframes().size(), Files.size(file));
+
+        long start = System.nanoTime();
+        ReplayPlayer player = new ReplayPlayer(replay);
+        if (seekTick > 0) {
+            player.seek(seekTick);
+            System.out.printf("Gesprungen zu Tick %d in %.1f ms%n", player.getSession().getTickCount(),
+                    (System.nanoTime() - start) / 1e6);
+        }
+        long firstTick = player.getSession().getTickCount();
+        start = System.nanoTime();
+
+        if (realTime) {
+            FixedStepLoop loop = new FixedStepLoop(replay.physicsHz, PhysicsConstants.MAX_STEPS_PER_FRAME);
+            loop.reset(System.nanoTime());
+            while (!player.isFinished()) {
+                int steps = loop.advance(System.nanoTime());
+                for (int i = 0; i < steps && !player.isFinished(); i++) {
+                    player.step();
+                }
+                Thread.sleep(1);
+            }
+        } else {
+            player.runToEnd();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        GameSession session = player.getSession();
+        long played = session.getTickCount() - firstTick;
+        System.out.printf("Ergebnis %s nach %d Ticks (aufgenommen: %s), x = %.2f m, %d Ticks in %.3f s (%.1fx Echtzeit)%n",
+                player.getResult(), session.getTickCount(), replay.result, session.getCar().getX(), played, seconds,
+                played * session.getTimeStep() / seconds);
+        if (!player.isExact()) {
+            System.out.println("Nach einem Keyframe-Sprung wird die Aufnahme nur angenähert, nicht geprüft.");
+        } else if (player.getDriftTick() >= 0) {
+            System.out.println("Replay weicht ab ab Tick " + player.getDriftTick() + ".");
+        } else {
+            System.out.println("Replay stimmt mit der Aufnahme überein.");
+        }
+    }
+}
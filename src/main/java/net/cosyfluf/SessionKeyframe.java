@@ -0,0 +1,92 @@
+package net.cosyfluf;
+
+import org.jbox2d.common.Vec2;
+import org.jbox2d.dynamics.Body;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Everything a {@link GameSession} needs to resume at a given tick: position, angle and velocities of the three
+ * car bodies, the nitro state, the upside-down timer and the collected spawn slots.
+ */
+public class SessionKeyframe {
+
+    static final int FLOATS_PER_BODY = 6;
+    static final int BODY_COUNT = 3;
+
+    public long tick;
+    public final float[] bodies = new float[BODY_COUNT * FLOATS_PER_BODY];
+    public float nitroFuel;
+    public boolean nitroActive;
+    public float nitroCooldown;
+    public float upsideDownTimer;
+    public long[] collectedSlots = new long[0];
+
+    static void captureBody(Body body, float[] out, int index) {
+        int offset = index * FLOATS_PER_BODY;
+        Vec2 position = body.getPosition();
+        Vec2 velocity = body.getLinearVelocity();
+        out[offset] = position.x;
+        out[offset + 1] = position.y;
+        out[offset + 2] = body.getAngle();
+        out[offset + 3] = velocity.x;
+        out[offset + 4] = velocity.y;
+        out[offset + 5] = body.getAngularVelocity();
+    }
+
+    static void restoreBody(Body body, float[] in, int index) {
+        int offset = index * FLOATS_PER_BODY;
+        body.setTransform(new Vec2(in[offset], in[offset + 1]), in[offset + 2]);
+        body.setLinearVelocity(new Vec2(in[offset + 3], in[offset + 4]));
+        body.setAngularVelocity(in[offset + 5]);
+        body.setAwake(true);
+    }
+
+    public void write(DataOutput out) throws IOException {
+        out.writeLong(tick);
+        for (float value : bodies) {
+            out.writeFloat(value);
+        }
+        out.writeFloat(nitroFuel);
+        out.writeBoolean(nitroActive);
+        out.writeFloat(nitroCooldown);
+        out.writeFloat(upsideDownTimer);
+        out.writeShort(collectedSlots.length);
+        for (long word : collectedSlots) {
+            out.writeLong(word);
+        }
+    }
+
+    public static SessionKeyframe read(DataInput in) throws IOException {
+        SessionKeyframe keyframe = new SessionKeyframe();
+        keyframe.tick = in.readLong();
+        for (int i = 0; i < keyframe.bodies.length; i++) {
+            keyframe.bodies[i] = in.readFloat();
+        }
+        keyframe.nitroFuel = in.readFloat();
+        keyframe.nitroActive = in.readBoolean();
+        keyframe.nitroCooldown = in.readFloat();
+        keyframe.upsideDownTimer = in.readFloat();
+        keyframe.collectedSlots = new long[in.readUnsignedShort()];
+        for (int i = 0; i < keyframe.collectedSlots.length; i++) {
+            keyframe.collectedSlots[i] = in.readLong();
+        }
+        return keyframe;
+    }
+
+    /**
+     * Bit-exact comparison, used to detect a replay drifting away from the recording.
+     */
+    public boolean sameState(SessionKeyframe other) {
+        return tick == other.tick
+                && Arrays.equals(bodies, other.bodies)
+                && Float.compare(nitroFuel, other.nitroFuel) == 0
+                && nitroActive == other.nitroActive
+                && Float.compare(nitroCooldown, other.nitroCooldown) == 0
+                && Float.compare(upsideDownTimer, other.upsideDownTimer) == 0
+                && Arrays.equals(collectedSlots, other.collectedSlots);
+    }
+}
@@ -0,0 +1,148 @@
+package net.cosyfluf;
+
+import org.jbox2d.callbacks.DebugDraw;
+import org.jbox2d.callbacks.TreeCallback;
+import org.jbox2d.callbacks.TreeRayCastCallback;
+import org.jbox2d.collision.AABB;
+import org.jbox2d.collision.RayCastInput;
+import org.jbox2d.collision.broadphase.BroadPhaseStrategy;
+import org.jbox2d.collision.broadphase.DynamicTree;
+import org.jbox2d.common.Vec2;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * JBox2D's {@link DynamicTree} behind proxy ids that depend only on what is in the world, not on what was in it
+ * before. JBox2D creates the contacts found in a step in the order of their proxy ids, and the tree hands out the
+ * nodes of destroyed proxies last-freed-first, so a world that had bodies come and go would solve the same scene
+ * in a different order than a new one. Here a proxy gets the lowest free id from {@code reservedIds} up, or the
+ * next id of a range opened with {@link #beginFixedIds(int)} for fixtures that always take the same place, like
+ * a terrain chunk's chain. The tree's own node ids stay inside.
+ */
+public class StableBroadPhase implements BroadPhaseStrategy {
+
+    private final DynamicTree tree = new DynamicTree();
+    private final int reservedIds;
+    private final BitSet usedIds = new BitSet();
+    private int nextFixedId = -1;
+
+    private int[] nodeOfId = new int[64];
+    private int[] idOfNode = new int[64];
+
+    private TreeCallback queryCallback;
+    private TreeRayCastCallback raycastCallback;
+    private final TreeCallback queryTranslator = node -> queryCallback.treeCallback(idOfNode[node]);
+    private final TreeRayCastCallback raycastTranslator =
+            (input, node) -> raycastCallback.raycastCallback(input, idOfNode[node]);
+
+    /**
+     * @param reservedIds ids below this are only handed out through {@link #beginFixedIds(int)}
+     */
+    public StableBroadPhase(int reservedIds) {
+        this.reservedIds = reservedIds;
+    }
+
+    /**
+     * Gives the proxies created until {@link #endFixedIds()} consecutive ids from {@code firstId} on.
+     */
+    public void beginFixedIds(int firstId) {
+        nextFixedId = firstId;
+    }
+
+    public void endFixedIds() {
+        nextFixedId = -1;
+    }
+
+    @Override
+    public int createProxy(AABB aabb, Object userData) {
+        int id = nextFixedId >= 0 ? nextFixedId++ : usedIds.nextClearBit(reservedIds);
+        if (usedIds.get(id)) {
+            throw new IllegalStateException("Proxy id " + id + " is already in use");
+        }
+        int node = tree.createProxy(aabb, userData);
+        if (id >= nodeOfId.length) {
+            nodeOfId = Arrays.copyOf(nodeOfId, Math.max(id + 1, nodeOfId.length * 2));
+        }
+        if (node >= idOfNode.length) {
+            idOfNode = Arrays.copyOf(idOfNode, Math.max(node + 1, idOfNode.length * 2));
+        }
+        usedIds.set(id);
+        nodeOfId[id] = node;
+        idOfNode[node] = id;
+        return id;
+    }
+
+    @Override
+    public void destroyProxy(int proxyId) {
+        tree.destroyProxy(nodeOfId[proxyId]);
+        usedIds.clear(proxyId);
+    }
+
+    @Override
+    public boolean moveProxy(int proxyId, AABB aabb, Vec2 displacement) {
+        return tree.moveProxy(nodeOfId[proxyId], aabb, displacement);
+    }
+
+    @Override
+    public Object getUserData(int proxyId) {
+        return tree.getUserData(nodeOfId[proxyId]);
+    }
+
+    @Override
+    public AABB getFatAABB(int proxyId) {
+        return tree.getFatAABB(nodeOfId[proxyId]);
+    }
+
+    @Override
+    public void query(TreeCallback callback, AABB aabb) {
+        TreeCallback outer = queryCallback;
+        queryCallback = callback;
+        try {
+            tree.query(queryTranslator, aabb);
+        } finally {
+            queryCallback = outer;
+        }
+    }
+
+    @Override
+    public void raycast(TreeRayCastCallback callback, RayCastInput input) {
+        TreeRayCastCallback outer = raycastCallback;
+        raycastCallback = callback;
+        try {
+            tree.raycast(raycastTranslator, input);
+        } finally {
+            raycastCallback = outer;
+        }
+    }
+
+    @Override
+    public int computeHeight() {
+        return tree.computeHeight();
+    }
+
+    @Override
+    public int getHeight() {
+        return tree.getHeight();
+    }
+
+    @Override
+    public int getMaxBalance() {
+        return tree.getMaxBalance();
+    }
+
+    @Override
+    public float getAreaRatio() {
+        return tree.getAreaRatio();
+    }
+
+    @Override
+    public int getInsertionCount() {
+        return tree.getInsertionCount();
+    }
+
+    @Override
+    public void drawTree(DebugDraw draw) {
+        tree.drawTree(draw);
+    }
+}
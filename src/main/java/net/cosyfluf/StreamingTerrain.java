@@ -0,0 +1,189 @@
+package net.cosyfluf;
+
+import org.jbox2d.collision.shapes.ChainShape;
+import org.jbox2d.common.Vec2;
+import org.jbox2d.dynamics.Body;
+import org.jbox2d.dynamics.BodyDef;
+import org.jbox2d.dynamics.Fixture;
+import org.jbox2d.dynamics.FixtureDef;
+import org.jbox2d.dynamics.World;
+
+/**
+ * Keeps only the terrain around the camera alive: fixed-width chunks are generated ahead of the car and
+ * dropped behind it, each with its own chain fixture on a shared static ground body. Heights are held once per
+ * chunk as JBox2D meters; pixel values are derived on demand. Chunk seams carry ghost
+ * vertices so wheels roll across them without catching on the joint. Each chunk slot's chain takes the same
+ * {@link StableBroadPhase} ids whenever it is loaded, the first {@link #PROXY_IDS} of them.
+ */
+public class StreamingTerrain {
+
+    public static final int CHUNK_SAMPLES = 300;
+    private static final int CHUNK_MARGIN = 1;
+    private static final int MAX_LOADED_CHUNKS = GameSession.LOGICAL_WIDTH / CHUNK_SAMPLES + 2 * CHUNK_MARGIN + 2;
+    public static final int PROXY_IDS = MAX_LOADED_CHUNKS * CHUNK_SAMPLES;
+
+    public interface ChunkListener {
+        void chunkLoaded(int chunkIndex, float startXMeters, float endXMeters);
+
+        void chunkUnloaded(int chunkIndex);
+    }
+
+    private static class Chunk {
+        int index = -1;
+        final float[] meters = new float[CHUNK_SAMPLES + 1];
+        Fixture fixture;
+    }
+
+    private final HeightSource heights;
+    private final StableBroadPhase broadPhase;
+    private final ChunkListener listener;
+    private final int length;
+    private final float spacing;
+    private final int chunkCount;
+
+    private final Body groundBody;
+    private final Chunk[] chunks = new Chunk[MAX_LOADED_CHUNKS];
+
+    private final float[] generationBuffer = new float[CHUNK_SAMPLES + 3];
+    private final Vec2[] vertexBuffer = new Vec2[CHUNK_SAMPLES + 1];
+    private final Vec2 ghostVertex = new Vec2();
+
+    private int firstLoaded = -1;
+    private int lastLoaded = -1;
+
+    public StreamingTerrain(World world, StableBroadPhase broadPhase, HeightSource heights, ChunkListener listener) {
+        this.heights = heights;
+        this.broadPhase = broadPhase;
+        this.listener = listener;
+        this.length = heights.getLength();
+        this.spacing = heights.getSpacingMeters();
+        this.chunkCount = (int) (((long) length - 1 + CHUNK_SAMPLES - 1) / CHUNK_SAMPLES);
+
+        for (int i = 0; i < chunks.length; i++) {
+            chunks[i] = new Chunk();
+        }
+        for (int i = 0; i < vertexBuffer.length; i++) {
+            vertexBuffer[i] = new Vec2();
+        }
+
+        BodyDef groundBd = new BodyDef();
+        groundBody = world.createBody(groundBd);
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public float getSpacingMeters() {
+        return spacing;
+    }
+
+    /**
+     * Streams chunks so that every sample in {@code [fromXMeters, toXMeters]} plus a one-chunk margin is loaded.
+     */
+    public void update(double fromXMeters, double toXMeters) {
+        int first = (int) Math.max(0, Math.floor(fromXMeters / spacing / CHUNK_SAMPLES) - CHUNK_MARGIN);
+        int last = (int) Math.min(chunkCount - 1, Math.floor(toXMeters / spacing / CHUNK_SAMPLES) + CHUNK_MARGIN);
+        if (last - first + 1 > chunks.length) {
+            last = first + chunks.length - 1;
+        }
+        if (first == firstLoaded && last == lastLoaded) return;
+
+        for (Chunk chunk : chunks) {
+            if (chunk.index >= 0 && (chunk.index < first || chunk.index > last)) {
+                unload(chunk);
+            }
+        }
+        for (int index = first; index <= last; index++) {
+            Chunk chunk = chunks[index % chunks.length];
+            if (chunk.index != index) {
+                if (chunk.index >= 0) unload(chunk);
+                load(chunk, index);
+            }
+        }
+        firstLoaded = first;
+        lastLoaded = last;
+    }
+
+    private void load(Chunk chunk, int index) {
+        int start = index * CHUNK_SAMPLES;
+        int end = (int) Math.min((long) start + CHUNK_SAMPLES, length - 1);
+
+        // One extra sample on each side becomes the chain's ghost vertices.
+        int from = Math.max(0, start - 1);
+        int to = (int) Math.min(length, (long) end + 2);
+        heights.fill(from, to, generationBuffer, 0);
+
+        int vertexCount = end - start + 1;
+        System.arraycopy(generationBuffer, start - from, chunk.meters, 0, vertexCount);
+        for (int i = 0; i < vertexCount; i++) {
+            vertexBuffer[i].set((start + i) * spacing, chunk.meters[i]);
+        }
+
+        // The chain keeps its own vertex copy; vertexBuffer is only the staging area.
+        ChainShape shape = new ChainShape();
+        shape.createChain(vertexBuffer, vertexCount);
+        if (from < start) {
+            shape.setPrevVertex(ghostVertex.set((start - 1) * spacing, generationBuffer[0]));
+        }
+        if (to > end + 1) {
+            shape.setNextVertex(ghostVertex.set((end + 1) * spacing, generationBuffer[end + 1 - from]));
+        }
+
+        FixtureDef groundFd = new FixtureDef();
+        groundFd.shape = shape;
+        groundFd.friction = 0.8f;
+        groundFd.filter.categoryBits = PhysicsConstants.CATEGORY_TERRAIN;
+        groundFd.filter.maskBits = PhysicsConstants.MASK_TERRAIN;
+        broadPhase.beginFixedIds(index % chunks.length * CHUNK_SAMPLES);
+        chunk.fixture = groundBody.createFixture(groundFd);
+        broadPhase.endFixedIds();
+        chunk.index = index;
+
+        listener.chunkLoaded(index, start * spacing, ((long) start + CHUNK_SAMPLES) * spacing);
+    }
+
+    private void unload(Chunk chunk) {
+        groundBody.destroyFixture(chunk.fixture);
+        chunk.fixture = null;
+        int index = chunk.index;
+        chunk.index = -1;
+        listener.chunkUnloaded(index);
+    }
+
+    public float getHeightMeters(int sample) {
+        if (sample < 0) sample = 0;
+        if (sample > length - 1) sample = length - 1;
+
+        int index = sample / CHUNK_SAMPLES;
+        Chunk chunk = chunks[index % chunks.length];
+        if (chunk.index == index) {
+            return chunk.meters[sample - index * CHUNK_SAMPLES];
+        }
+        // The first sample of a chunk is also the last vertex of its predecessor.
+        if (index > 0 && sample == index * CHUNK_SAMPLES) {
+            Chunk previous = chunks[(index - 1) % chunks.length];
+            if (previous.index == index - 1) {
+                return previous.meters[CHUNK_SAMPLES];
+            }
+        }
+        throw new IllegalStateException("Terrain sample " + sample + " is outside the streamed chunks "
+                + firstLoaded + ".." + lastLoaded);
+    }
+
+    public double getHeightPixels(int sample) {
+        return GameSession.toSwingY(getHeightMeters(sample));
+    }
+
+    public float getHeightInterpolatedMeters(float xMeters) {
+        float position = xMeters / spacing;
+        int x1 = (int) position;
+        if (x1 < 0) return getHeightMeters(0);
+        if (x1 >= length - 1) return getHeightMeters(length - 1);
+
+        float y1 = getHeightMeters(x1);
+        float y2 = getHeightMeters(x1 + 1);
+        float frac = position - x1;
+        return y1 * (1 - frac) + y2 * frac;
+    }
+}
@@ -0,0 +1,225 @@
+package net.cosyfluf;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Per-tick telemetry of one run as written by {@link TelemetryRecorder}, loaded column by column for analysis.
+ * Every column holds one 32-bit value per tick: floats as their raw bits, everything else as plain ints. The file
+ * is a header followed by independently compressed blocks of up to {@link TelemetryRecorder#CHUNK_ROWS} ticks
+ * (big endian):
+ *
+ * <pre>
+ * int magic, int version, long parametersHash, int physicsHz, int columnCount, columnCount x UTF column name
+ * per block: int rows, int deflatedBytes, long crc32, byte[deflatedBytes]
+ * </pre>
+ *
+ * A block inflates to each column in turn as {@code rows} zig-zag varints of the difference to the previous row,
+ * the first row of a block against 0; the checksum covers the inflated bytes. A run that ended without closing
+ * its file loses at most the block that was being written.
+ */
+public class Telemetry {
+
+    public static final int MAGIC = 0x4843544C;
+    public static final int VERSION = 1;
+    public static final String FILE_SUFFIX = ".hctelemetry";
+    public static final String TELEMETRY_DIR_PROPERTY = "hillclimb.telemetryDir";
+
+    public enum Column {
+        INPUT(false),
+        CHASSIS_X(true),
+        CHASSIS_Y(true),
+        CHASSIS_ANGLE(true),
+        VELOCITY_X(true),
+        VELOCITY_Y(true),
+        ANGULAR_VELOCITY(true),
+        FRONT_WHEEL_SPIN(true),
+        REAR_WHEEL_SPIN(true),
+        MOTOR_SPEED(true),
+        MOTOR_TORQUE(true),
+        NITRO_FUEL(true),
+        NITRO_COOLDOWN(true),
+        NITRO_ACTIVE(false),
+        UPSIDE_DOWN_TIMER(true),
+        PICKUPS(false);
+
+        public final boolean floating;
+
+        Column(boolean floating) {
+            this.floating = floating;
+        }
+    }
+
+    private static final Column[] COLUMNS = Column.values();
+
+    public final long parametersHash;
+    public final int physicsHz;
+    public final int rows;
+    /** Whether the file ended inside a block, i.e. the run was not closed properly. */
+    public final boolean truncated;
+
+    // Indexed by Column.ordinal(); null for columns the file does not have.
+    private final int[][] columns;
+
+    private Telemetry(long parametersHash, int physicsHz, int rows, boolean truncated, int[][] columns) {
+        this.parametersHash = parametersHash;
+        this.physicsHz = physicsHz;
+        this.rows = rows;
+        this.truncated = truncated;
+        this.columns = columns;
+    }
+
+    public static Path telemetryDirectory() {
+        return Paths.get(System.getProperty(TELEMETRY_DIR_PROPERTY, "telemetry"));
+    }
+
+    public static String fileName(LevelInfo level, Date recordedAt) {
+        return RecordingFiles.fileName("telemetry", level, recordedAt, FILE_SUFFIX);
+    }
+
+    public boolean has(Column column) {
+        return columns[column.ordinal()] != null;
+    }
+
+    public int[] ints(Column column) {
+        int[] values = columns[column.ordinal()];
+        if (values == null) throw new IllegalArgumentException("Spalte " + column + " fehlt in der Datei");
+        return values;
+    }
+
+    public float[] floats(Column column) {
+        int[] bits = ints(column);
+        float[] values = new float[bits.length];
+        for (int i = 0; i < bits.length; i++) {
+            values[i] = Float.intBitsToFloat(bits[i]);
+        }
+        return values;
+    }
+
+    public static Telemetry read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) throw new IOException("Keine Telemetrie-Datei");
+            int version = in.readInt();
+            if (version != VERSION) throw new IOException("Version " + version + " wird nicht unterstützt");
+            long parametersHash = in.readLong();
+            int physicsHz = in.readInt();
+            int columnCount = in.readInt();
+            if (physicsHz <= 0 || columnCount <= 0) throw new IOException("Ungültiger Kopf");
+
+            // Columns this build does not know are decoded and dropped.
+            int[] target = new int[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                String name = in.readUTF();
+                target[i] = -1;
+                for (Column column : COLUMNS) {
+                    if (column.name().equals(name)) target[i] = column.ordinal();
+                }
+            }
+
+            int[][] columns = new int[COLUMNS.length][];
+            for (int i = 0; i < columnCount; i++) {
+                if (target[i] >= 0) columns[target[i]] = new int[1024];
+            }
+            int[] scratch = new int[0];
+            int rows = 0;
+            boolean truncated = false;
+            Inflater inflater = new Inflater();
+            try {
+                while (true) {
+                    int blockRows;
+                    try {
+                        blockRows = in.readInt();
+                    } catch (EOFException e) {
+                        break;
+                    }
+                    byte[] payload;
+                    long crc;
+                    try {
+                        int deflatedBytes = in.readInt();
+                        crc = in.readLong();
+                        if (blockRows <= 0 || blockRows > TelemetryRecorder.CHUNK_ROWS || deflatedBytes < 0) {
+                            throw new IOException("Ungültiger Block nach Zeile " + rows);
+                        }
+                        payload = new byte[deflatedBytes];
+                        in.readFully(payload);
+                    } catch (EOFException e) {
+                        truncated = true;
+                        break;
+                    }
+
+                    byte[] inflated = inflate(inflater, payload, blockRows * columnCount * 5);
+                    CRC32 check = new CRC32();
+                    check.update(inflated);
+                    if (check.getValue() != crc) throw new IOException("Prüfsumme stimmt nicht in Block ab Zeile " + rows);
+
+                    if (scratch.length < blockRows) scratch = new int[blockRows];
+                    int position = 0;
+                    for (int c = 0; c < columnCount; c++) {
+                        int value = 0;
+                        for (int r = 0; r < blockRows; r++) {
+                            int zigZag = 0;
+                            int shift = 0;
+                            byte b;
+                            do {
+                                if (position == inflated.length) throw new IOException("Block ab Zeile " + rows + " zu kurz");
+                                b = inflated[position++];
+                                zigZag |= (b & 0x7F) << shift;
+                                shift += 7;
+                            } while ((b & 0x80) != 0);
+                            value += (zigZag >>> 1) ^ -(zigZag & 1);
+                            scratch[r] = value;
+                        }
+                        int[] column = target[c] >= 0 ? columns[target[c]] : null;
+                        if (column == null) continue;
+                        if (column.length < rows + blockRows) {
+                            column = Arrays.copyOf(column, Math.max(column.length * 2, rows + blockRows));
+                            columns[target[c]] = column;
+                        }
+                        System.arraycopy(scratch, 0, column, rows, blockRows);
+                    }
+                    rows += blockRows;
+                }
+            } finally {
+                inflater.end();
+            }
+
+            for (int i = 0; i < columns.length; i++) {
+                if (columns[i] != null) columns[i] = Arrays.copyOf(columns[i], rows);
+            }
+            return new Telemetry(parametersHash, physicsHz, rows, truncated, columns);
+        }
+    }
+
+    private static byte[] inflate(Inflater inflater, byte[] payload, int maxBytes) throws IOException {
+        inflater.reset();
+        inflater.setInput(payload);
+        byte[] out = new byte[Math.min(maxBytes, Math.max(1024, payload.length * 4))];
+        int length = 0;
+        try {
+            while (!inflater.finished()) {
+                if (length == out.length) {
+                    if (out.length >= maxBytes) throw new IOException("Block größer als erwartet");
+                    out = Arrays.copyOf(out, Math.min(maxBytes, out.length * 2));
+                }
+                int n = inflater.inflate(out, length, out.length - length);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Block unvollständig komprimiert");
+                }
+                length += n;
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Block nicht lesbar: " + e.getMessage());
+        }
+        return Arrays.copyOf(out, length);
+    }
+}
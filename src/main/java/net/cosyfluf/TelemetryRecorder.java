@@ -0,0 +1,255 @@
+package net.cosyfluf;
+
+import org.jbox2d.common.Vec2;
+import org.jbox2d.dynamics.Body;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Records every tick of a {@link GameSession} into the {@link Telemetry} format. {@link #record(int)} only stores
+ * a row of ints into the current chunk of preallocated column arrays; full chunks are encoded, compressed and
+ * appended to the file by a shared background thread and then come back for reuse. The simulation never waits
+ * for that thread: if it falls behind, another chunk is allocated and counted in {@link #getOverflowChunks()}.
+ * After a {@link GameSession#reset()} the same recorder goes on into a new file with {@link #rewind(Path)}. An
+ * existing file is never overwritten: if the requested one exists, the recording goes to a numbered sibling.
+ */
+public class TelemetryRecorder {
+
+    public static final String TELEMETRY_PROPERTY = "hillclimb.telemetry";
+    public static final int CHUNK_ROWS = 1024;
+
+    private static final int POOL_CHUNKS = 4;
+    private static final Telemetry.Column[] COLUMNS = Telemetry.Column.values();
+    private static final ExecutorService WRITER = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "telemetry-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final GameSession session;
+    private volatile Path file;
+    private final long parametersHash;
+    private final int physicsHz;
+    private final ArrayBlockingQueue<int[][]> freeChunks = new ArrayBlockingQueue<>(POOL_CHUNKS);
+    private int[][] chunk;
+    private int rows;
+    private long overflowChunks;
+    private boolean finished;
+
+    // Writer thread only. The Deflater lives as long as the recorder; its cleaner frees it once that is dropped.
+    private Path outFile;
+    private DataOutputStream out;
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private final CRC32 crc = new CRC32();
+    private byte[] encoded = new byte[0];
+    private byte[] deflated = new byte[0];
+    private boolean failed;
+    private volatile long writtenBytes;
+
+    public TelemetryRecorder(GameSession session, Path file) {
+        this.session = session;
+        this.file = file;
+        this.parametersHash = session.getLevel().parametersHash();
+        this.physicsHz = session.getPhysicsHz();
+        chunk = newChunk();
+        for (int i = 1; i < POOL_CHUNKS; i++) {
+            freeChunks.add(newChunk());
+        }
+        WRITER.execute(() -> open(file));
+    }
+
+    private static int[][] newChunk() {
+        return new int[COLUMNS.length][CHUNK_ROWS];
+    }
+
+    /**
+     * Stores the state after the tick that was just run with {@code input}.
+     */
+    public void record(int input) {
+        Car car = session.getCar();
+        Body chassis = car.chassisBody;
+        Vec2 position = chassis.getPosition();
+        Vec2 velocity = chassis.getLinearVelocity();
+
+        set(Telemetry.Column.INPUT, input);
+        set(Telemetry.Column.CHASSIS_X, position.x);
+        set(Telemetry.Column.CHASSIS_Y, position.y);
+        set(Telemetry.Column.CHASSIS_ANGLE, chassis.getAngle());
+        set(Telemetry.Column.VELOCITY_X, velocity.x);
+        set(Telemetry.Column.VELOCITY_Y, velocity.y);
+        set(Telemetry.Column.ANGULAR_VELOCITY, chassis.getAngularVelocity());
+        set(Telemetry.Column.FRONT_WHEEL_SPIN, car.frontWheelBody.getAngularVelocity());
+        set(Telemetry.Column.REAR_WHEEL_SPIN, car.rearWheelBody.getAngularVelocity());
+        set(Telemetry.Column.MOTOR_SPEED, car.appliedMotorSpeed);
+        set(Telemetry.Column.MOTOR_TORQUE, car.appliedMotorTorque);
+        set(Telemetry.Column.NITRO_FUEL, car.currentNitroFuel);
+        set(Telemetry.Column.NITRO_COOLDOWN, car.nitroCooldownTimer);
+        set(Telemetry.Column.NITRO_ACTIVE, car.isNitroActive ? 1 : 0);
+        set(Telemetry.Column.UPSIDE_DOWN_TIMER, session.getUpsideDownTimer());
+        set(Telemetry.Column.PICKUPS, session.getPickupCount());
+
+        if (++rows == CHUNK_ROWS) {
+            submitChunk();
+        }
+    }
+
+    private void set(Telemetry.Column column, int value) {
+        chunk[column.ordinal()][rows] = value;
+    }
+
+    private void set(Telemetry.Column column, float value) {
+        chunk[column.ordinal()][rows] = Float.floatToRawIntBits(value);
+    }
+
+    private void submitChunk() {
+        int[][] full = chunk;
+        int fullRows = rows;
+        chunk = freeChunks.poll();
+        if (chunk == null) {
+            chunk = newChunk();
+            overflowChunks++;
+        }
+        rows = 0;
+        WRITER.execute(() -> writeChunk(full, fullRows));
+    }
+
+    /**
+     * Hands the remaining rows to the writer, which closes the file after them. Further calls do nothing.
+     */
+    public void finish() {
+        if (finished) return;
+        finished = true;
+        if (rows > 0) {
+            submitChunk();
+        }
+        WRITER.execute(this::close);
+    }
+
+    /**
+     * Finishes the current file if that has not happened yet and records the following ticks into {@code nextFile},
+     * reusing the chunks and the compressor. Meant for the next run of the same session after a reset.
+     */
+    public void rewind(Path nextFile) {
+        finish();
+        file = nextFile;
+        finished = false;
+        WRITER.execute(() -> open(nextFile));
+    }
+
+    private void open(Path target) {
+        outFile = target;
+        out = null;
+        failed = false;
+        writtenBytes = 0;
+        try {
+            outFile = RecordingFiles.createNew(target.getParent(), target.getFileName().toString(),
+                    Telemetry.FILE_SUFFIX);
+            file = outFile;
+            out = new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(outFile, StandardOpenOption.WRITE)));
+            out.writeInt(Telemetry.MAGIC);
+            out.writeInt(Telemetry.VERSION);
+            out.writeLong(parametersHash);
+            out.writeInt(physicsHz);
+            out.writeInt(COLUMNS.length);
+            for (Telemetry.Column column : COLUMNS) {
+                out.writeUTF(column.name());
+            }
+            out.flush();
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    private void writeChunk(int[][] columns, int count) {
+        try {
+            if (failed) return;
+
+            int size = 0;
+            if (encoded.length < columns.length * count * 5) {
+                encoded = new byte[columns.length * count * 5];
+            }
+            for (int[] column : columns) {
+                int previous = 0;
+                for (int r = 0; r < count; r++) {
+                    int difference = column[r] - previous;
+                    previous = column[r];
+                    int zigZag = (difference << 1) ^ (difference >> 31);
+                    while ((zigZag & ~0x7F) != 0) {
+                        encoded[size++] = (byte) (zigZag & 0x7F | 0x80);
+                        zigZag >>>= 7;
+                    }
+                    encoded[size++] = (byte) zigZag;
+                }
+            }
+            crc.reset();
+            crc.update(encoded, 0, size);
+
+            deflater.reset();
+            deflater.setInput(encoded, 0, size);
+            deflater.finish();
+            int deflatedSize = 0;
+            while (!deflater.finished()) {
+                if (deflatedSize == deflated.length) {
+                    deflated = Arrays.copyOf(deflated, Math.max(4096, deflated.length * 2));
+                }
+                deflatedSize += deflater.deflate(deflated, deflatedSize, deflated.length - deflatedSize);
+            }
+
+            out.writeInt(count);
+            out.writeInt(deflatedSize);
+            out.writeLong(crc.getValue());
+            out.write(deflated, 0, deflatedSize);
+            out.flush();
+            writtenBytes = out.size();
+        } catch (IOException e) {
+            fail(e);
+        } finally {
+            freeChunks.offer(columns);
+        }
+    }
+
+    private void close() {
+        if (out == null) return;
+        try {
+            out.close();
+            if (!failed) {
+                System.out.println("Telemetrie gespeichert: " + outFile + " (" + out.size() + " Bytes)");
+            }
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    private void fail(IOException e) {
+        if (!failed) {
+            System.out.println("Telemetrie konnte nicht geschrieben werden: " + e.getMessage());
+        }
+        failed = true;
+    }
+
+    /** The file being recorded into, once the writer has created it; until then the one asked for. */
+    public Path getFile() {
+        return file;
+    }
+
+    /** Bytes on disk so far, as of the last block the writer finished. */
+    public long getWrittenBytes() {
+        return writtenBytes;
+    }
+
+    public long getOverflowChunks() {
+        return overflowChunks;
+    }
+}
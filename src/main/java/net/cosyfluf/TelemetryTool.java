@@ -0,0 +1,80 @@
+package net.cosyfluf;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Loads a telemetry file and prints the range and mean of every column, optionally exporting all rows as CSV for
+ * spreadsheets and plotting tools.
+ * Usage: {@code TelemetryTool <telemetryFile> [--csv <outputFile>]}
+ */
+public class TelemetryTool {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Aufruf: TelemetryTool <telemetryFile> [--csv <outputFile>]");
+            return;
+        }
+        Path csv = null;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--csv") && i + 1 < args.length) {
+                csv = Paths.get(args[++i]);
+            } else {
+                throw new IllegalArgumentException("Unbekannte Option: " + args[i]);
+            }
+        }
+
+        Path file = Paths.get(args[0]);
+        long start = System.nanoTime();
+        Telemetry telemetry = Telemetry.read(file);
+        System.out.printf("Telemetrie %s: %d Ticks bei %d Hz (%.1f s), %d Bytes (%.1f Bytes/Tick), gelesen in %.1f ms%s%n",
+                file, telemetry.rows, telemetry.physicsHz, (double) telemetry.rows / telemetry.physicsHz,
+                Files.size(file), (double) Files.size(file) / Math.max(1, telemetry.rows),
+                (System.nanoTime() - start) / 1e6, telemetry.truncated ? ", letzter Block abgeschnitten" : "");
+
+        for (Telemetry.Column column : Telemetry.Column.values()) {
+            if (!telemetry.has(column) || telemetry.rows == 0) continue;
+            int[] raw = telemetry.ints(column);
+            double min = Double.MAX_VALUE;
+            double max = -Double.MAX_VALUE;
+            double sum = 0;
+            for (int bits : raw) {
+                double v = column.floating ? Float.intBitsToFloat(bits) : bits;
+                min = Math.min(min, v);
+                max = Math.max(max, v);
+                sum += v;
+            }
+            System.out.printf("  %-18s min %12.4f  max %12.4f  Mittel %12.4f%n", column, min, max, sum / raw.length);
+        }
+
+        if (csv != null) {
+            writeCsv(telemetry, csv);
+            System.out.println("CSV geschrieben: " + csv);
+        }
+    }
+
+    private static void writeCsv(Telemetry telemetry, Path csv) throws IOException {
+        Telemetry.Column[] columns = Telemetry.Column.values();
+        try (BufferedWriter out = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+            out.write("tick");
+            for (Telemetry.Column column : columns) {
+                if (telemetry.has(column)) out.write("," + column.name().toLowerCase());
+            }
+            out.newLine();
+            for (int row = 0; row < telemetry.rows; row++) {
+                out.write(Integer.toString(row + 1));
+                for (Telemetry.Column column : columns) {
+                    if (!telemetry.has(column)) continue;
+                    int bits = telemetry.ints(column)[row];
+                    out.write(',');
+                    out.write(column.floating ? Float.toString(Float.intBitsToFloat(bits)) : Integer.toString(bits));
+                }
+                out.newLine();
+            }
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package net.cosyfluf;
+
+import java.util.Arrays;
+
+/**
+ * Produces the smoothed terrain height field of a level (one sample per pixel column) for
+ * arbitrary sample ranges, so terrain can be generated chunk by chunk instead of all at once. The random walk
+ * state is checkpointed at every chunk boundary; regenerating an earlier chunk resumes from its checkpoint and
+ * yields exactly the samples a full-length generation would.
+ * <p>
+ * The sine/cosine terms advance by an angle-addition recurrence that is re-seeded from {@link Math#sin} and
+ * {@link Math#cos} at every multiple of {@link #TRIG_RESEED_INTERVAL}, and the blur runs branch-free over the interior
+ * between two reused buffers. Heights stay within {@link #TOLERANCE_PIXELS} of the direct evaluation; the random
+ * walk itself is unaffected and stays bit-exact.
+ */
+public class TerrainGenerator implements HeightSource {
+
+    public static final double TERRAIN_OFFSET_Y = GameSession.LOGICAL_HEIGHT * 0.7;
+
+    private static final int SMOOTHING_PASSES = 4;
+    private static final double MAX_SLOPE_CHANGE = 0.01;
+    private static final double MAX_SLOPE = 0.15;
+
+    public static final int TRIG_RESEED_INTERVAL = 64;
+    public static final double TOLERANCE_PIXELS = 1e-9;
+
+    private final LevelInfo level;
+    private final int length;
+    private final int checkpointInterval;
+
+    private final LevelRandom random;
+    private double currentY;
+    private double currentSlope;
+    private int nextSample;
+
+    private final double stepSinA;
+    private final double stepCosA;
+    private final double stepSinB;
+    private final double stepCosB;
+    private double sinA;
+    private double cosA;
+    private double sinB;
+    private double cosB;
+    private int trigSample = -1;
+
+    private long[] checkpointRandom = new long[16];
+    private double[] checkpointY = new double[16];
+    private double[] checkpointSlope = new double[16];
+    private int checkpointCount = 0;
+
+    private double[] bufferA = new double[0];
+    private double[] bufferB = new double[0];
+    private double[] pixelBuffer = new double[0];
+
+    public TerrainGenerator(LevelInfo level, int checkpointInterval) {
+        this.level = level;
+        this.length = level.lengthPixels;
+        this.checkpointInterval = checkpointInterval;
+        this.random = new LevelRandom(level.seed);
+        this.currentY = TERRAIN_OFFSET_Y;
+        this.currentSlope = 0.0;
+        this.nextSample = 0;
+
+        double angleB = level.terrainSmoothness * 0.7;
+        this.stepSinA = Math.sin(level.terrainSmoothness);
+        this.stepCosA = Math.cos(level.terrainSmoothness);
+        this.stepSinB = Math.sin(angleB);
+        this.stepCosB = Math.cos(angleB);
+    }
+
+    public LevelInfo getLevel() {
+        return level;
+    }
+
+    @Override
+    public int getLength() {
+        return length;
+    }
+
+    @Override
+    public float getSpacingMeters() {
+        return 1.0f / PhysicsConstants.PIXELS_PER_METER;
+    }
+
+    @Override
+    public void fill(int from, int to, float[] outMeters, int outOffset) {
+        int count = to - from;
+        if (pixelBuffer.length < count) {
+            pixelBuffer = new double[count];
+        }
+        generatePixels(from, to, pixelBuffer, 0);
+        for (int i = 0; i < count; i++) {
+            outMeters[outOffset + i] = GameSession.toJBox2dY(pixelBuffer[i]);
+        }
+    }
+
+    /**
+     * Writes the smoothed samples {@code [from, to)}, in screen pixels, to {@code out} starting at {@code outOffset}.
+     */
+    public void generatePixels(int from, int to, double[] out, int outOffset) {
+        if (from < 0 || to > length || from >= to) {
+            throw new IllegalArgumentException("Invalid terrain range [" + from + ", " + to + ") for length " + length);
+        }
+
+        // Each smoothing pass reads one neighbour on each side, so SMOOTHING_PASSES extra raw samples on both
+        // ends make [from, to) exact. Where the window hits the level boundary the original edge rule applies.
+        int lo = Math.max(0, from - SMOOTHING_PASSES);
+        int hi = (int) Math.min(length, (long) to + SMOOTHING_PASSES);
+        int count = hi - lo;
+        if (bufferA.length < count) {
+            bufferA = new double[count];
+            bufferB = new double[count];
+        }
+
+        seekTo(lo);
+        for (int i = 0; i < count; i++) {
+            bufferA[i] = nextRawSample();
+        }
+
+        double[] source = bufferA;
+        double[] target = bufferB;
+        for (int pass = 0; pass < SMOOTHING_PASSES; pass++) {
+            blur(source, target, count);
+            double[] swap = source;
+            source = target;
+            target = swap;
+        }
+
+        System.arraycopy(source, from - lo, out, outOffset, to - from);
+    }
+
+    /**
+     * One three-tap box blur pass. The summation order matches the original per-sample loop so results are
+     * bit-identical; only the two edge samples take the two-tap path.
+     */
+    static void blur(double[] source, double[] target, int count) {
+        if (count == 1) {
+            target[0] = source[0];
+            return;
+        }
+        target[0] = (source[0] + source[1]) / 2;
+        int last = count - 1;
+        int i = 1;
+        for (; i + 1 < last; i += 2) {
+            double left = source[i - 1];
+            double center = source[i];
+            double right = source[i + 1];
+            double next = source[i + 2];
+            target[i] = (center + left + right) / 3;
+            target[i + 1] = (right + center + next) / 3;
+        }
+        for (; i < last; i++) {
+            target[i] = (source[i] + source[i - 1] + source[i + 1]) / 3;
+        }
+        target[last] = (source[last] + source[last - 1]) / 2;
+    }
+
+    private void seekTo(int sample) {
+        // Resume from the closest checkpoint unless the live cursor already sits between it and the target.
+        int checkpoint = Math.min(sample / checkpointInterval, checkpointCount - 1);
+        if (checkpoint >= 0 && (sample < nextSample || checkpoint * checkpointInterval > nextSample)) {
+            random.setState(checkpointRandom[checkpoint]);
+            currentY = checkpointY[checkpoint];
+            currentSlope = checkpointSlope[checkpoint];
+            nextSample = checkpoint * checkpointInterval;
+        }
+        while (nextSample < sample) {
+            nextRawSample();
+        }
+    }
+
+    private double nextRawSample() {
+        int i = nextSample;
+        if (i % checkpointInterval == 0 && i / checkpointInterval == checkpointCount) {
+            recordCheckpoint();
+        }
+
+        if (trigSample != i || i % TRIG_RESEED_INTERVAL == 0) {
+            // Always run the recurrence from the block start, so a sample comes out the same whichever fill reaches it.
+            seedTrig(i - i % TRIG_RESEED_INTERVAL);
+            while (trigSample < i) {
+                advanceTrig();
+            }
+        }
+
+        double value = currentY + sinA * level.terrainAmplitude * 0.8 +
+                cosB * level.terrainAmplitude * 0.5 +
+                (random.nextDouble() - 0.5) * level.terrainNoiseFactor;
+        advanceTrig();
+
+        currentSlope += (random.nextDouble() - 0.5) * MAX_SLOPE_CHANGE;
+        currentSlope = Math.max(-MAX_SLOPE, Math.min(MAX_SLOPE, currentSlope));
+        currentY += currentSlope * 15;
+
+        if (currentY > GameSession.LOGICAL_HEIGHT * 0.95) currentY = GameSession.LOGICAL_HEIGHT * 0.95;
+        if (currentY < GameSession.LOGICAL_HEIGHT * 0.4) currentY = GameSession.LOGICAL_HEIGHT * 0.4;
+
+        nextSample++;
+        return value;
+    }
+
+    private void seedTrig(int sample) {
+        double angleA = sample * level.terrainSmoothness;
+        double angleB = sample * level.terrainSmoothness * 0.7;
+        sinA = Math.sin(angleA);
+        cosA = Math.cos(angleA);
+        sinB = Math.sin(angleB);
+        cosB = Math.cos(angleB);
+        trigSample = sample;
+    }
+
+    private void advanceTrig() {
+        double nextSinA = sinA * stepCosA + cosA * stepSinA;
+        cosA = cosA * stepCosA - sinA * stepSinA;
+        sinA = nextSinA;
+        double nextSinB = sinB * stepCosB + cosB * stepSinB;
+        cosB = cosB * stepCosB - sinB * stepSinB;
+        sinB = nextSinB;
+        trigSample++;
+    }
+
+    private void recordCheckpoint() {
+        if (checkpointCount == checkpointRandom.length) {
+            int newLength = checkpointRandom.length * 2;
+            checkpointRandom = Arrays.copyOf(checkpointRandom, newLength);
+            checkpointY = Arrays.copyOf(checkpointY, newLength);
+            checkpointSlope = Arrays.copyOf(checkpointSlope, newLength);
+        }
+        checkpointRandom[checkpointCount] = random.getState();
+        checkpointY[checkpointCount] = currentY;
+        checkpointSlope[checkpointCount] = currentSlope;
+        checkpointCount++;
+    }
+}
@@ -0,0 +1,208 @@
+package net.cosyfluf;
+
+import java.awt.AlphaComposite;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.geom.Path2D;
+import java.awt.image.VolatileImage;
+
+/**
+ * Rasterizes the terrain once into fixed-width tiles at device resolution and blits the visible ones each
+ * frame. Tiles live in accelerated {@link VolatileImage}s that are re-rendered when the surface is lost, and the
+ * cache holds a bounded number of them, evicting the least recently drawn tile. Heights come from the cache's own
+ * {@link TerrainGenerator} rather than the session's streamed chunks, so tiles can be drawn off the simulation
+ * thread.
+ */
+public class TerrainTileCache {
+
+    public static final int TILE_WIDTH = 256;
+    private static final int DEFAULT_CAPACITY = 24;
+
+    private static final Color TERRAIN_TOP = new Color(34, 139, 34);
+    private static final Color TERRAIN_BOTTOM = new Color(139, 69, 19);
+    private static final BasicStroke OUTLINE_STROKE = new BasicStroke(2f);
+
+    private final int capacity;
+    private final LevelInfo[] tileLevels;
+    private final int[] tileIndices;
+    private final long[] lastUsed;
+    private final VolatileImage[] images;
+    private long frameCounter = 0;
+
+    private double tileScaleX = 0.0;
+    private double tileScaleY = 0.0;
+
+    private LevelInfo heightsLevel;
+    private HeightSource heights;
+    private float[] heightBuffer = new float[0];
+
+    public TerrainTileCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public TerrainTileCache(int capacity) {
+        this.capacity = capacity;
+        this.tileLevels = new LevelInfo[capacity];
+        this.tileIndices = new int[capacity];
+        this.lastUsed = new long[capacity];
+        this.images = new VolatileImage[capacity];
+    }
+
+    /**
+     * Draws the terrain visible at {@code cameraOffsetX}. {@code g2d} must carry the logical-to-device scale
+     * {@code (scaleX, scaleY)} on top of its base transform; tiles are blitted unscaled in device space.
+     */
+    public void draw(Graphics2D g2d, LevelInfo level, double cameraOffsetX, double scaleX, double scaleY) {
+        if (scaleX != tileScaleX || scaleY != tileScaleY) {
+            clear();
+            tileScaleX = scaleX;
+            tileScaleY = scaleY;
+        }
+        frameCounter++;
+        if (level != heightsLevel) {
+            heights = new TerrainGenerator(level, StreamingTerrain.CHUNK_SAMPLES);
+            heightsLevel = level;
+        }
+        HeightSource terrain = heights;
+
+        double visibleStart = Math.max(0.0, cameraOffsetX);
+        double visibleEnd = Math.min(terrain.getLength() * samplePixels(terrain), cameraOffsetX + GameSession.LOGICAL_WIDTH);
+        int firstTile = (int) (visibleStart / TILE_WIDTH);
+        int lastTile = (int) ((Math.ceil(visibleEnd) - 1) / TILE_WIDTH);
+
+        GraphicsConfiguration gc = g2d.getDeviceConfiguration();
+        g2d.scale(1.0 / scaleX, 1.0 / scaleY);
+
+        int tileDeviceWidth = (int) Math.ceil(TILE_WIDTH * scaleX);
+        int tileDeviceHeight = (int) Math.ceil(GameSession.LOGICAL_HEIGHT * scaleY);
+        for (int tile = firstTile; tile <= lastTile; tile++) {
+            VolatileImage image = acquire(gc, level, terrain, tile, tileDeviceWidth, tileDeviceHeight);
+            int deviceX = (int) Math.round((tile * (double) TILE_WIDTH - cameraOffsetX) * scaleX);
+            g2d.drawImage(image, deviceX, 0, null);
+        }
+
+        g2d.scale(scaleX, scaleY);
+    }
+
+    private VolatileImage acquire(GraphicsConfiguration gc, LevelInfo level, HeightSource terrain, int tile,
+                                  int width, int height) {
+        int slot = find(level, tile);
+        boolean needsRender = false;
+        if (slot < 0) {
+            slot = evictionSlot();
+            if (images[slot] != null) {
+                images[slot].flush();
+                images[slot] = null;
+            }
+            tileLevels[slot] = level;
+            tileIndices[slot] = tile;
+            needsRender = true;
+        }
+        lastUsed[slot] = frameCounter;
+
+        VolatileImage image = images[slot];
+        if (image == null || image.validate(gc) == VolatileImage.IMAGE_INCOMPATIBLE) {
+            if (image != null) image.flush();
+            image = gc.createCompatibleVolatileImage(width, height, Transparency.TRANSLUCENT);
+            images[slot] = image;
+            image.validate(gc);
+            needsRender = true;
+        } else if (image.contentsLost()) {
+            needsRender = true;
+        }
+
+        if (needsRender) {
+            do {
+                if (image.validate(gc) == VolatileImage.IMAGE_INCOMPATIBLE) {
+                    image.flush();
+                    image = gc.createCompatibleVolatileImage(width, height, Transparency.TRANSLUCENT);
+                    images[slot] = image;
+                }
+                renderTile(image, terrain, tile);
+            } while (image.contentsLost());
+        }
+        return image;
+    }
+
+    private void renderTile(VolatileImage image, HeightSource terrain, int tile) {
+        Graphics2D tg = image.createGraphics();
+        try {
+            tg.setComposite(AlphaComposite.Clear);
+            tg.fillRect(0, 0, image.getWidth(), image.getHeight());
+            tg.setComposite(AlphaComposite.SrcOver);
+
+            tg.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            tg.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+            tg.scale(tileScaleX, tileScaleY);
+
+            int tileStart = tile * TILE_WIDTH;
+            tg.translate(-tileStart, 0);
+
+            // Overlap the neighbours by one sample so anti-aliased edges meet without a seam.
+            double samplePixels = samplePixels(terrain);
+            int from = (int) Math.max(0, Math.floor(tileStart / samplePixels) - 1);
+            int to = (int) Math.min(terrain.getLength() - 1, (long) Math.ceil((tileStart + TILE_WIDTH) / samplePixels) + 1);
+            if (to <= from) return;
+
+            if (heightBuffer.length < to - from + 1) {
+                heightBuffer = new float[to - from + 1];
+            }
+            terrain.fill(from, to + 1, heightBuffer, 0);
+
+            Path2D.Float surface = new Path2D.Float();
+            surface.moveTo(from * samplePixels, GameSession.toSwingY(heightBuffer[0]));
+            for (int i = from + 1; i <= to; i++) {
+                surface.lineTo(i * samplePixels, GameSession.toSwingY(heightBuffer[i - from]));
+            }
+
+            Path2D.Float body = new Path2D.Float(surface);
+            body.lineTo(to * samplePixels, GameSession.LOGICAL_HEIGHT);
+            body.lineTo(from * samplePixels, GameSession.LOGICAL_HEIGHT);
+            body.closePath();
+
+            tg.setColor(TERRAIN_TOP);
+            tg.fill(body);
+            tg.setColor(TERRAIN_BOTTOM);
+            tg.setStroke(OUTLINE_STROKE);
+            tg.draw(surface);
+        } finally {
+            tg.dispose();
+        }
+    }
+
+    private static double samplePixels(HeightSource terrain) {
+        return terrain.getSpacingMeters() * (double) PhysicsConstants.PIXELS_PER_METER;
+    }
+
+    private int find(LevelInfo level, int tile) {
+        for (int i = 0; i < capacity; i++) {
+            if (tileLevels[i] == level && tileIndices[i] == tile) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int evictionSlot() {
+        int oldest = 0;
+        for (int i = 0; i < capacity; i++) {
+            if (tileLevels[i] == null) return i;
+            if (lastUsed[i] < lastUsed[oldest]) oldest = i;
+        }
+        return oldest;
+    }
+
+    public void clear() {
+        for (int i = 0; i < capacity; i++) {
+            if (images[i] != null) {
+                images[i].flush();
+                images[i] = null;
+            }
+            tileLevels[i] = null;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package net.cosyfluf;
+
+import java.awt.Graphics2D;
+import java.text.DecimalFormatSymbols;
+
+/**
+ * Reusable character buffer for per-frame text such as the HUD, drawn with {@link Graphics2D#drawChars} so no
+ * {@code String} is built per frame.
+ */
+public final class TextBuffer {
+
+    private static final char DECIMAL_SEPARATOR = DecimalFormatSymbols.getInstance().getDecimalSeparator();
+
+    private final char[] chars;
+    private int length;
+
+    public TextBuffer(int capacity) {
+        this.chars = new char[capacity];
+    }
+
+    public TextBuffer clear() {
+        length = 0;
+        return this;
+    }
+
+    public TextBuffer append(String text) {
+        int count = Math.min(text.length(), chars.length - length);
+        text.getChars(0, count, chars, length);
+        length += count;
+        return this;
+    }
+
+    public TextBuffer append(char c) {
+        if (length < chars.length) {
+            chars[length++] = c;
+        }
+        return this;
+    }
+
+    public TextBuffer append(long value) {
+        if (value < 0) {
+            append('-');
+            value = -value;
+        }
+        int start = length;
+        do {
+            append((char) ('0' + (int) (value % 10)));
+            value /= 10;
+        } while (value != 0);
+        for (int i = start, j = length - 1; i < j; i++, j--) {
+            char swap = chars[i];
+            chars[i] = chars[j];
+            chars[j] = swap;
+        }
+        return this;
+    }
+
+    /**
+     * Appends {@code value} rounded half-up to one decimal, like {@code String.format("%.1f", value)}.
+     */
+    public TextBuffer appendOneDecimal(double value) {
+        long tenths = Math.round(value * 10);
+        if (tenths < 0) {
+            append('-');
+            tenths = -tenths;
+        }
+        return append(tenths / 10).append(DECIMAL_SEPARATOR).append((char) ('0' + (int) (tenths % 10)));
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public void draw(Graphics2D g2d, int x, int y) {
+        g2d.drawChars(chars, 0, length, x, y);
+    }
+}
@@ -0,0 +1,138 @@
+package net.cosyfluf;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Evolves {@link LinearDriver}s headless on all cores. Every evaluation is its own {@link GameSession} (world, car
+ * and streamed terrain) on a work-stealing {@link ForkJoinPool}; all sessions of a level read the same immutable
+ * {@link LevelAsset}, generated once up front. Before training it measures evaluations per second and scaling
+ * efficiency for 1, 2, 4, ... threads.
+ * Usage: {@code TrainingFarm [generations] [population] [maxTicksPerRun] [maxThreads]}
+ */
+public class TrainingFarm {
+
+    private static final float MUTATION_SIGMA = 0.3f;
+
+    public static void main(String[] args) throws InterruptedException, ExecutionException {
+        int generations = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        int population = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int maxTicks = args.length > 2 ? Integer.parseInt(args[2]) : DriverEvaluator.DEFAULT_MAX_TICKS;
+        int maxThreads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        List<LevelInfo> levels = new ArrayList<>();
+        List<LevelAsset> assets = new ArrayList<>();
+        long start = System.nanoTime();
+        for (LevelInfo level : LevelInfo.defaultLevels()) {
+            if (level.isEndless()) continue;
+            levels.add(level);
+            assets.add(LevelAsset.generate(level));
+        }
+        System.out.printf("%d Level vorberechnet in %.1f ms%n", levels.size(), (System.nanoTime() - start) / 1e6);
+
+        Random random = new Random(42);
+        LinearDriver[] drivers = new LinearDriver[population];
+        for (int i = 0; i < population; i++) {
+            drivers[i] = LinearDriver.random(random);
+        }
+
+        measureScaling(drivers, levels, assets, maxTicks, maxThreads);
+
+        ForkJoinPool pool = new ForkJoinPool(maxThreads);
+        try {
+            for (int generation = 0; generation < generations; generation++) {
+                long generationStart = System.nanoTime();
+                float[] fitness = evaluateAll(pool, drivers, levels, assets, maxTicks);
+                double seconds = (System.nanoTime() - generationStart) / 1e9;
+
+                Integer[] ranking = new Integer[population];
+                for (int i = 0; i < population; i++) ranking[i] = i;
+                Arrays.sort(ranking, Comparator.comparingDouble(i -> -fitness[i]));
+
+                double mean = 0;
+                for (float f : fitness) mean += f;
+                mean /= population;
+                System.out.printf("Generation %d: beste %.1f m, Mittel %.1f m, %.1f Auswertungen/s%n",
+                        generation, fitness[ranking[0]], mean, population * levels.size() / seconds);
+
+                // The best quarter survives unchanged; everyone else is a mutated copy of a survivor.
+                int survivors = Math.max(1, population / 4);
+                LinearDriver[] next = new LinearDriver[population];
+                for (int i = 0; i < population; i++) {
+                    LinearDriver parent = drivers[ranking[i % survivors]];
+                    next[i] = i < survivors ? parent : parent.mutate(random, MUTATION_SIGMA);
+                }
+                drivers = next;
+            }
+        } finally {
+            pool.shutdown();
+        }
+        System.out.println("Gewichte des besten Fahrers: " + Arrays.toString(drivers[0].getWeights()));
+    }
+
+    /**
+     * Sum of the distances each driver reaches over all levels, one pool task per driver and level.
+     */
+    static float[] evaluateAll(ForkJoinPool pool, LinearDriver[] drivers, List<LevelInfo> levels,
+                               List<LevelAsset> assets, int maxTicks) throws InterruptedException, ExecutionException {
+        List<Callable<Float>> tasks = new ArrayList<>(drivers.length * levels.size());
+        for (LinearDriver driver : drivers) {
+            for (int l = 0; l < levels.size(); l++) {
+                LevelInfo level = levels.get(l);
+                LevelAsset asset = assets.get(l);
+                tasks.add(() -> DriverEvaluator.evaluate(driver, level, asset, maxTicks));
+            }
+        }
+
+        List<Future<Float>> results = pool.invokeAll(tasks);
+        float[] fitness = new float[drivers.length];
+        for (int i = 0; i < results.size(); i++) {
+            fitness[i / levels.size()] += results.get(i).get();
+        }
+        return fitness;
+    }
+
+    private static void measureScaling(LinearDriver[] drivers, List<LevelInfo> levels, List<LevelAsset> assets,
+                                       int maxTicks, int maxThreads) throws InterruptedException, ExecutionException {
+        List<Integer> threadCounts = new ArrayList<>();
+        for (int threads = 1; threads < maxThreads; threads *= 2) {
+            threadCounts.add(threads);
+        }
+        threadCounts.add(maxThreads);
+
+        // Warm-up, and the reference for the determinism check below.
+        float[] reference;
+        ForkJoinPool warmup = new ForkJoinPool(1);
+        try {
+            reference = evaluateAll(warmup, drivers, levels, assets, maxTicks);
+        } finally {
+            warmup.shutdown();
+        }
+
+        int evaluations = drivers.length * levels.size();
+        double singleThreadRate = 0;
+        for (int threads : threadCounts) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                long start = System.nanoTime();
+                float[] fitness = evaluateAll(pool, drivers, levels, assets, maxTicks);
+                double rate = evaluations / ((System.nanoTime() - start) / 1e9);
+                if (threads == 1) singleThreadRate = rate;
+                if (!Arrays.equals(fitness, reference)) {
+                    throw new IllegalStateException("Evaluation with " + threads + " threads is not deterministic");
+                }
+                System.out.printf("%2d Threads: %.1f Auswertungen/s, Skalierungseffizienz %.0f%%%n",
+                        threads, rate, 100 * rate / (threads * singleThreadRate));
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package net.cosyfluf;
+
+import org.jbox2d.dynamics.Body;
+import org.jbox2d.dynamics.BodyDef;
+import org.jbox2d.dynamics.FixtureDef;
+import org.jbox2d.dynamics.World;
+
+import java.util.Arrays;
+
+/**
+ * World changes requested while the world is locked, i.e. from contact callbacks during {@link World#step}.
+ * Requests are kept in order in parallel arrays and applied in one batch by {@link #flush(World)} once the step
+ * has returned; queueing allocates nothing beyond growing the arrays.
+ */
+public class WorldCommandQueue {
+
+    public interface BodyCreatedListener {
+        void bodyCreated(Body body);
+    }
+
+    private static final byte CREATE = 0;
+    private static final byte DESTROY = 1;
+    private static final byte ACTIVATE = 2;
+    private static final byte DEACTIVATE = 3;
+
+    private byte[] ops = new byte[16];
+    private Body[] bodies = new Body[16];
+    private BodyDef[] bodyDefs = new BodyDef[16];
+    private FixtureDef[] fixtureDefs = new FixtureDef[16];
+    private Object[] fixtureUserData = new Object[16];
+    private BodyCreatedListener[] listeners = new BodyCreatedListener[16];
+    private int size;
+
+    /**
+     * Creates a body with a single fixture on the next flush and hands it to {@code listener}, which may be null.
+     */
+    public void createBody(BodyDef bodyDef, FixtureDef fixtureDef, Object userData, BodyCreatedListener listener) {
+        int i = append(CREATE, null);
+        bodyDefs[i] = bodyDef;
+        fixtureDefs[i] = fixtureDef;
+        fixtureUserData[i] = userData;
+        listeners[i] = listener;
+    }
+
+    public void destroyBody(Body body) {
+        append(DESTROY, body);
+    }
+
+    public void setActive(Body body, boolean active) {
+        append(active ? ACTIVATE : DEACTIVATE, body);
+    }
+
+    private int append(byte op, Body body) {
+        if (size == ops.length) {
+            int capacity = size * 2;
+            ops = Arrays.copyOf(ops, capacity);
+            bodies = Arrays.copyOf(bodies, capacity);
+            bodyDefs = Arrays.copyOf(bodyDefs, capacity);
+            fixtureDefs = Arrays.copyOf(fixtureDefs, capacity);
+            fixtureUserData = Arrays.copyOf(fixtureUserData, capacity);
+            listeners = Arrays.copyOf(listeners, capacity);
+        }
+        ops[size] = op;
+        bodies[size] = body;
+        return size++;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Applies every queued change in request order. Must not be called while {@code world} is stepping.
+     */
+    public void flush(World world) {
+        if (size == 0) return;
+        if (world.isLocked()) {
+            throw new IllegalStateException("World commands cannot be applied during World.step");
+        }
+        // Commands queued by the listeners below run in this same flush.
+        for (int i = 0; i < size; i++) {
+            switch (ops[i]) {
+                case CREATE:
+                    Body created = world.createBody(bodyDefs[i]);
+                    created.createFixture(fixtureDefs[i]).setUserData(fixtureUserData[i]);
+                    if (listeners[i] != null) listeners[i].bodyCreated(created);
+                    break;
+                case DESTROY:
+                    world.destroyBody(bodies[i]);
+                    break;
+                case ACTIVATE:
+                    bodies[i].setActive(true);
+                    break;
+                case DEACTIVATE:
+                    bodies[i].setActive(false);
+                    break;
+            }
+        }
+        Arrays.fill(bodies, 0, size, null);
+        Arrays.fill(bodyDefs, 0, size, null);
+        Arrays.fill(fixtureDefs, 0, size, null);
+        Arrays.fill(fixtureUserData, 0, size, null);
+        Arrays.fill(listeners, 0, size, null);
+        size = 0;
+    }
+}
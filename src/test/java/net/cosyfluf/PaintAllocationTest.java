@@ -0,0 +1,109 @@
+package net.cosyfluf;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * The game's steady-state paint code allocates nothing, measured with the per-thread allocation counter of
+ * {@code com.sun.management.ThreadMXBean}. Frames are painted through {@link DiscardingGraphics}, because the
+ * software Java2D pipeline behind a {@code BufferedImage} allocates internally (path iterators, blit contexts)
+ * whatever the caller does. Compilation and deoptimization still allocate now and then during the first few
+ * thousand frames, so the check takes the best of several windows: real per-frame garbage shows up in all of them.
+ */
+class PaintAllocationTest {
+
+    private static final int WARMUP_FRAMES = 5_000;
+    private static final int CHECKED_FRAMES = 1_000;
+    private static final int CHECKED_WINDOWS = 5;
+    private static final AffineTransform IDENTITY = new AffineTransform();
+
+    private final String ghostDir = System.getProperty(GhostTrack.GHOST_DIR_PROPERTY);
+
+    @AfterEach
+    void restoreGhostDir() {
+        if (ghostDir == null) {
+            System.clearProperty(GhostTrack.GHOST_DIR_PROPERTY);
+        } else {
+            System.setProperty(GhostTrack.GHOST_DIR_PROPERTY, ghostDir);
+        }
+    }
+
+    @Test
+    void inGameFrameAllocatesNothing(@TempDir Path ghosts) {
+        System.setProperty(GhostTrack.GHOST_DIR_PROPERTY, ghosts.toString());
+        assertEquals(0, paintedBytes(), "bytes allocated over " + CHECKED_FRAMES + " frames");
+    }
+
+    @Test
+    void frameWithGhostsAllocatesNothing(@TempDir Path ghosts) throws IOException {
+        System.setProperty(GhostTrack.GHOST_DIR_PROPERTY, ghosts.toString());
+        for (int i = 0; i < 10; i++) {
+            GameSession session = new GameSession(LevelInfo.defaultLevels().get(0));
+            session.setVerbose(false);
+            GhostRecorder recorder = new GhostRecorder(session);
+            for (int tick = 0; tick < 300; tick++) {
+                session.tick(tick % (i % 5 + 2) == 0 ? DriveInput.NONE : DriveInput.FORWARD);
+                recorder.record();
+            }
+            recorder.write(ghosts.resolve(GhostTrack.fileName(session.getLevel(), "ghost" + i)), "ghost" + i, false);
+        }
+        assertEquals(0, paintedBytes(), "bytes allocated over " + CHECKED_FRAMES + " frames");
+    }
+
+    private static long paintedBytes() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+
+        GamePanel panel = new GamePanel(null, LevelInfo.defaultLevels());
+        panel.setSize(GameSession.LOGICAL_WIDTH, GameSession.LOGICAL_HEIGHT);
+        panel.setActiveRendering(true);
+        panel.startGame(0);
+        panel.stopGameTimer();
+
+        // Drive a little with nitro so the flame, cooldown text and some collectibles are on screen.
+        GameSession session = panel.getSession();
+        session.setVerbose(false);
+        for (int i = 0; i < 90; i++) {
+            session.tick(DriveInput.FORWARD | DriveInput.NITRO);
+        }
+        panel.refreshSnapshot();
+
+        BufferedImage image = new BufferedImage(GameSession.LOGICAL_WIDTH, GameSession.LOGICAL_HEIGHT,
+                BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = image.createGraphics();
+        Graphics2D discarding = new DiscardingGraphics(g2d);
+        try {
+            for (int i = 0; i < WARMUP_FRAMES; i++) {
+                paint(panel, discarding);
+            }
+            long threadId = Thread.currentThread().getId();
+            long fewest = Long.MAX_VALUE;
+            for (int window = 0; window < CHECKED_WINDOWS && fewest > 0; window++) {
+                long before = threads.getThreadAllocatedBytes(threadId);
+                for (int i = 0; i < CHECKED_FRAMES; i++) {
+                    paint(panel, discarding);
+                }
+                fewest = Math.min(fewest, threads.getThreadAllocatedBytes(threadId) - before);
+            }
+            return fewest;
+        } finally {
+            g2d.dispose();
+        }
+    }
+
+    private static void paint(GamePanel panel, Graphics2D target) {
+        target.setTransform(IDENTITY);
+        panel.paintOffscreen(target, GameSession.LOGICAL_WIDTH, GameSession.LOGICAL_HEIGHT);
+    }
+}
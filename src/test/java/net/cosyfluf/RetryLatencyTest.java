@@ -0,0 +1,87 @@
+package net.cosyfluf;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.event.KeyEvent;
+import java.awt.event.KeyListener;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * "Try Again" through {@link GamePanel#startGame(int)} with the default recorders on: the session is reset in
+ * place and the replay, ghost and telemetry recorders are rewound. Runs of different lengths at full throttle
+ * come before each retry, so some end near the start and some have streamed the terrain away and picked up
+ * collectibles.
+ * <p>
+ * The budget applies to the CPU time of the thread that retries, the one that would otherwise run the next frame.
+ * Wall time would also count whatever the machine schedules in between, including the telemetry writer closing
+ * the previous file on a single-core runner.
+ */
+class RetryLatencyTest {
+
+    private static final long BUDGET_NANOS = 1_000_000;
+    // A new car is a few kilobytes of JBox2D bodies, fixtures and joints; a new session is hundreds.
+    private static final long ALLOCATION_BUDGET_BYTES = 32 * 1024;
+    private static final int WARMUP_RETRIES = 20;
+    private static final int RETRIES = 50;
+
+    @Test
+    void retryResetsInPlaceWithinBudget() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isCurrentThreadCpuTimeSupported() && threads.isThreadCpuTimeEnabled());
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+        GamePanel panel = new GamePanel(null, LevelInfo.defaultLevels());
+        panel.setSize(GameSession.LOGICAL_WIDTH, GameSession.LOGICAL_HEIGHT);
+        panel.setActiveRendering(true);
+        panel.startGame(0);
+        panel.stopGameTimer();
+        GameSession session = panel.getSession();
+        session.setVerbose(false);
+        press(panel, KeyEvent.VK_W);
+        press(panel, KeyEvent.VK_SPACE);
+        panel.simulateTicks(1);
+        assertTrue(session.getCar().forward, "the test must drive");
+
+        long[] nanos = new long[RETRIES];
+        long[] bytes = new long[RETRIES];
+        long threadId = Thread.currentThread().getId();
+        for (int i = -WARMUP_RETRIES; i < RETRIES; i++) {
+            panel.simulateTicks(30 + Math.floorMod(i, 7) * 150);
+
+            long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+            long start = threads.getCurrentThreadCpuTime();
+            panel.startGame(0);
+            long elapsed = threads.getCurrentThreadCpuTime() - start;
+            long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+            panel.stopGameTimer();
+
+            assertSame(session, panel.getSession(), "retry must reuse the session");
+            if (i >= 0) {
+                nanos[i] = elapsed;
+                bytes[i] = allocated;
+            }
+        }
+
+        // The median keeps a retry that ran into a compilation or a collection from failing the build.
+        Arrays.sort(nanos);
+        Arrays.sort(bytes);
+        long median = nanos[RETRIES / 2];
+        assertTrue(median < BUDGET_NANOS, () -> "median retry took " + median / 1000 + " us, max "
+                + nanos[RETRIES - 1] / 1000 + " us");
+        long medianBytes = bytes[RETRIES / 2];
+        assertTrue(medianBytes < ALLOCATION_BUDGET_BYTES, () -> "median retry allocated " + medianBytes + " bytes");
+    }
+
+    // Straight to the listeners: without a focus owner, e.g. headless, dispatchEvent drops key events.
+    private static void press(GamePanel panel, int keyCode) {
+        KeyEvent event = new KeyEvent(panel, KeyEvent.KEY_PRESSED, System.currentTimeMillis(), 0, keyCode,
+                KeyEvent.CHAR_UNDEFINED);
+        for (KeyListener listener : panel.getKeyListeners()) {
+            listener.keyPressed(event);
+        }
+    }
+}